@@ -0,0 +1,74 @@
+package com.br.mesusers.auth;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.br.mesusers.user.UserEntity;
+
+import io.jsonwebtoken.Claims;
+import jakarta.security.auth.message.AuthException;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class AuthServiceBenchmark {
+
+    private static final String SECRET_KEY = "1234567890123456789012345678901234567890123456789012345678901234";
+    // Maior que o cache de claims (10 mil): percorrido em ordem, o LRU sempre já descartou o próximo token
+    private static final int COLD_TOKENS = 1 << 15;
+
+    private AuthService authService;
+    private UserEntity userEntity;
+    private String token;
+    private String[] coldTokens;
+    private int nextColdToken;
+
+    @Setup
+    public void setUp() {
+        authService = new AuthService(null, null, null, null, new TokenDenylist(), SECRET_KEY);
+        userEntity = new UserEntity("joao_silva", "joao@gmail.com", "$2a$10$hash", true);
+        userEntity.setId(42L);
+        token = authService.generateJwtToken(userEntity);
+        coldTokens = new String[COLD_TOKENS];
+        for (int i = 0; i < COLD_TOKENS; i++) {
+            coldTokens[i] = authService.generateJwtToken(userEntity);
+        }
+    }
+
+    @Benchmark
+    public String generateJwtToken() {
+        return authService.generateJwtToken(userEntity);
+    }
+
+    // Sempre o mesmo token: mede o acerto no cache de claims
+    @Benchmark
+    public Claims validateAndParseToken() throws AuthException {
+        return authService.validateAndParseToken(token);
+    }
+
+    @Benchmark
+    public Claims validateAndParseToken_bearerHeader() throws AuthException {
+        return authService.validateAndParseToken("Bearer " + token);
+    }
+
+    // Token ainda não visto: mede o parse e a verificação da assinatura, mais a gravação no cache
+    @Benchmark
+    public Claims validateAndParseToken_cold() throws AuthException {
+        String next = coldTokens[nextColdToken];
+        nextColdToken = (nextColdToken + 1) & (COLD_TOKENS - 1);
+        return authService.validateAndParseToken(next);
+    }
+}
@@ -0,0 +1,54 @@
+package com.br.mesusers.shared.records;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.br.mesusers.user.UserResponseDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class ResponseSerializationBenchmark {
+
+    @Param({ "10", "100" })
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ResponseRecord<PaginatedResponse<UserResponseDTO>> response;
+
+    @Setup
+    public void setUp() {
+        // Mesma configuração base que o Spring Boot aplica ao ObjectMapper da aplicação
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<UserResponseDTO> users = new ArrayList<>(pageSize);
+        for (long i = 1; i <= pageSize; i++) {
+            users.add(new UserResponseDTO(i, "usuario_" + i, "usuario" + i + "@gmail.com", i % 10 == 0));
+        }
+        response = ResponseRecord.success(new PaginatedResponse<>(users, 1, 10_000, pageSize, 10_000 / pageSize));
+    }
+
+    @Benchmark
+    public byte[] serializePaginatedUsers() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,61 @@
+package com.br.mesusers.shared.reflection;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.br.mesusers.user.UserEntity;
+import com.br.mesusers.user.UserRequestDTO;
+import com.br.mesusers.user.UserResponseDTO;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class DTOMapperBenchmark {
+
+    /** Par sem {@link GenerateMapper}: passa pelo plano de MethodHandles. */
+    public record UserSummaryDTO(Long id, String username, String email, Boolean admin) {
+    }
+
+    private UserEntity userEntity;
+    private UserRequestDTO userRequestDTO;
+
+    @Setup
+    public void setUp() {
+        userEntity = new UserEntity("joao_silva", "joao@gmail.com", "$2a$10$hash", false);
+        userEntity.setId(42L);
+        userRequestDTO = new UserRequestDTO(null, "joao_silva", "joao@gmail.com", "$2a$10$hash", false);
+    }
+
+    @Benchmark
+    public UserResponseDTO recordTarget_generated() {
+        return DTOMapper.transform(userEntity, UserResponseDTO.class);
+    }
+
+    @Benchmark
+    public UserSummaryDTO recordTarget_methodHandles() {
+        return DTOMapper.transform(userEntity, UserSummaryDTO.class);
+    }
+
+    @Benchmark
+    public UserEntity classTarget_generated() {
+        return DTOMapper.transform(userRequestDTO, UserEntity.class);
+    }
+
+    @Benchmark
+    public UserResponseDTO recordTarget_handWritten() {
+        return new UserResponseDTO(userEntity);
+    }
+}
@@ -0,0 +1,42 @@
+package com.br.mesusers.user;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class UserEntityBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean admin;
+
+    private UserEntity userEntity;
+
+    @Setup
+    public void setUp() {
+        userEntity = new UserEntity("joao_silva", "joao@gmail.com", "$2a$10$hash", admin);
+        userEntity.setId(42L);
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> getAuthorities() {
+        return userEntity.getAuthorities();
+    }
+}
@@ -2,6 +2,7 @@ package com.br.mesusers;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.RestController;
  *
  */
 @SpringBootApplication
+@EnableScheduling
 public class App {
     public static void main(String... args) {
         SpringApplication.run(App.class, args);
@@ -1,41 +1,70 @@
 package com.br.mesusers.address;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
-import com.br.mesusers.auth.AuthService;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.br.mesusers.auth.AuthenticatedUser;
+import com.br.mesusers.shared.export.ExportFormat;
+import com.br.mesusers.shared.http.ETags;
+import com.br.mesusers.shared.http.MergePatch;
+import com.br.mesusers.shared.http.PreconditionFailedException;
+import com.br.mesusers.shared.pagination.CountMode;
 import com.br.mesusers.shared.records.PaginatedResponse;
 import com.br.mesusers.shared.records.ResponseRecord;
-import com.br.mesusers.shared.reflection.DTOMapper;
-import com.br.mesusers.user.UserEntity;
+import com.br.mesusers.shared.validation.Violations;
 import com.br.mesusers.viacep.ViaCepResponse;
 import com.br.mesusers.viacep.ViaCepService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.security.auth.message.AuthException;
+import jakarta.validation.Validator;
 
 @RestController
 @RequestMapping("api/addresses")
 public class AddressController {
 
+        private static final int MAX_BATCH_SIZE = 1_000;
+        private static final List<String> CEP_FIELDS = List.of("street", "neighborhood", "city", "state");
+
         @Autowired
         private AddressService addressService;
         @Autowired
         private ViaCepService viaCepService;
         @Autowired
-        private AuthService authService;
+        private AddressExportService addressExportService;
+        @Autowired
+        private Validator validator;
 
         @PostMapping
         public ResponseEntity<ResponseRecord<AddressResponseDTO>> create(
-                        @RequestHeader("Authorization") String token,
-                        @Validated @RequestBody AddressRequestDTO request) throws AuthException {
+                        @AuthenticationPrincipal AuthenticatedUser currentUser,
+                        @Validated @RequestBody AddressRequestDTO request) {
 
-                UserEntity userEntity = authService.getCurrentUser(token);
-                if (request.userId() != null && !request.userId().equals(userEntity.getId())
-                                && !userEntity.getAdmin()) {
+                if (request.userId() != null && !request.userId().equals(currentUser.id())
+                                && !currentUser.admin()) {
                         return ResponseEntity.status(403).body(ResponseRecord.error(403, "Forbidden"));
                 }
-                ViaCepResponse viaCepResponse = viaCepService.getAddressFromCep(request.cep());
+                ViaCepResponse viaCepResponse;
+                try {
+                        viaCepResponse = viaCepService.getAddressFromCep(request.cep());
+                } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest().body(ResponseRecord.error(400, e.getMessage()));
+                }
                 AddressRequestDTO completeRequest = new AddressRequestDTO(
                                 viaCepResponse.cep(),
                                 request.number(),
@@ -44,7 +73,7 @@ public class AddressController {
                                 viaCepResponse.neighborhood(),
                                 viaCepResponse.city(),
                                 viaCepResponse.state(),
-                                request.userId());
+                                request.userId() != null ? request.userId() : currentUser.id());
                 AddressResponseDTO address = addressService.create(completeRequest);
 
                 return ResponseEntity.ok(ResponseRecord.success(
@@ -52,15 +81,87 @@ public class AddressController {
                                 address));
         }
 
+        @PostMapping("/batch")
+        public ResponseEntity<ResponseRecord<List<AddressResponseDTO>>> createAll(
+                        @AuthenticationPrincipal AuthenticatedUser currentUser,
+                        @RequestBody List<AddressRequestDTO> requests) {
+
+                if (requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+                        return ResponseEntity.badRequest().body(ResponseRecord.error(400,
+                                        "O lote deve ter entre 1 e " + MAX_BATCH_SIZE + " endereços"));
+                }
+                // O @Validated do corpo não chega aos elementos da lista: cada um é conferido antes de ir ao ViaCEP
+                for (int i = 0; i < requests.size(); i++) {
+                        AddressRequestDTO request = requests.get(i);
+                        String error = Violations.first(validator.validate(request));
+                        if (error != null) {
+                                return ResponseEntity.badRequest()
+                                                .body(ResponseRecord.error(400, "Endereço " + (i + 1) + ": " + error));
+                        }
+                        if (request.userId() != null && !request.userId().equals(currentUser.id())
+                                        && !currentUser.admin()) {
+                                return ResponseEntity.status(403).body(ResponseRecord.error(403, "Forbidden"));
+                        }
+                }
+                List<AddressRequestDTO> completeRequests = new ArrayList<>(requests.size());
+                for (AddressRequestDTO request : requests) {
+                        ViaCepResponse viaCepResponse;
+                        try {
+                                viaCepResponse = viaCepService.getAddressFromCep(request.cep());
+                        } catch (IllegalArgumentException e) {
+                                return ResponseEntity.badRequest().body(ResponseRecord.error(400, e.getMessage()));
+                        }
+                        completeRequests.add(new AddressRequestDTO(
+                                        viaCepResponse.cep(),
+                                        request.number(),
+                                        request.complement(),
+                                        viaCepResponse.street(),
+                                        viaCepResponse.neighborhood(),
+                                        viaCepResponse.city(),
+                                        viaCepResponse.state(),
+                                        request.userId() != null ? request.userId() : currentUser.id()));
+                }
+
+                try {
+                        return ResponseEntity.ok(ResponseRecord.success(
+                                        "Addresses created successfully",
+                                        addressService.createAll(completeRequests)));
+                } catch (EntityNotFoundException e) {
+                        return ResponseEntity.badRequest().body(ResponseRecord.error(400, e.getMessage()));
+                }
+        }
+
+        @GetMapping("/export")
+        public ResponseEntity<StreamingResponseBody> export(
+                        @AuthenticationPrincipal AuthenticatedUser currentUser,
+                        @RequestParam(name = "format", required = false) String format) {
+                if (!currentUser.admin()) {
+                        return ResponseEntity.status(403).build();
+                }
+                ExportFormat exportFormat = ExportFormat.parse(format);
+                StreamingResponseBody body = out -> addressExportService.export(out, exportFormat);
+                return ResponseEntity.ok()
+                                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                                .header(HttpHeaders.CONTENT_DISPOSITION,
+                                                "attachment; filename=\"addresses." + exportFormat.extension() + "\"")
+                                .body(body);
+        }
+
         @GetMapping("/{id}")
         public ResponseEntity<ResponseRecord<AddressResponseDTO>> getById(
                         @RequestHeader("Authorization") String token,
-                        @PathVariable Long id) throws AuthException {
+                        @PathVariable Long id,
+                        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+                        throws AuthException {
 
                 // Long userId = authService.getUserIdFromToken(token);
+                String versionTag = addressService.findVersionTag(id);
+                if (ETags.noneMatchFails(ifNoneMatch, versionTag)) {
+                        return ResponseEntity.status(304).eTag(ETags.of(versionTag)).build();
+                }
                 AddressResponseDTO address = addressService.findById(id);
 
-                return ResponseEntity.ok(ResponseRecord.success(
+                return withETag(ResponseEntity.ok(), versionTag).body(ResponseRecord.success(
                                 "Address retrieved successfully",
                                 address));
         }
@@ -69,13 +170,20 @@ public class AddressController {
         public ResponseEntity<ResponseRecord<PaginatedResponse<AddressResponseDTO>>> getAll(
                         @RequestHeader("Authorization") String token,
                         @RequestParam(name = "page", defaultValue = "1") int page,
-                        @RequestParam(name = "pageSize", defaultValue = "10") int pageSize) throws AuthException {
+                        @RequestParam(name = "pageSize", defaultValue = "10") int pageSize,
+                        @RequestParam(name = "count", required = false) String count) throws AuthException {
+                CountMode countMode = CountMode.parse(count);
+                if (countMode != CountMode.EXACT) {
+                        return ResponseEntity.ok(ResponseRecord.success(
+                                        "Addresses retrieved successfully",
+                                        addressService.findSlice(page, pageSize, countMode)));
+                }
                 Page<AddressResponseDTO> pageResult = addressService.findAll(page, pageSize);
 
                 PaginatedResponse<AddressResponseDTO> response = new PaginatedResponse<>(
                                 pageResult.getContent(),
                                 page,
-                                (int) pageResult.getTotalElements(),
+                                pageResult.getTotalElements(),
                                 pageSize,
                                 pageResult.getTotalPages());
 
@@ -86,15 +194,20 @@ public class AddressController {
 
         @PutMapping("/{id}")
         public ResponseEntity<ResponseRecord<AddressResponseDTO>> update(
-                        @RequestHeader("Authorization") String token,
+                        @AuthenticationPrincipal AuthenticatedUser currentUser,
                         @PathVariable("id") Long id,
-                        @Validated @RequestBody AddressRequestDTO request) throws AuthException {
+                        @Validated @RequestBody AddressRequestDTO request,
+                        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-                Long userId = authService.getUserIdFromToken(token);
-                if (request.userId() != null && !request.userId().equals(userId) && !authService.isAdmin(token)) {
+                if (request.userId() != null && !request.userId().equals(currentUser.id()) && !currentUser.admin()) {
                         return ResponseEntity.status(403).body(ResponseRecord.error(403, "Forbidden"));
                 }
-                ViaCepResponse viaCepResponse = viaCepService.getAddressFromCep(request.cep());
+                ViaCepResponse viaCepResponse;
+                try {
+                        viaCepResponse = viaCepService.getAddressFromCep(request.cep());
+                } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest().body(ResponseRecord.error(400, e.getMessage()));
+                }
                 AddressRequestDTO completeRequest = new AddressRequestDTO(
                                 viaCepResponse.cep(),
                                 request.number(),
@@ -105,28 +218,134 @@ public class AddressController {
                                 viaCepResponse.state(),
                                 request.userId());
 
-                AddressResponseDTO updatedAddress = addressService.update(id, request.userId(), completeRequest);
+                AddressResponseDTO updatedAddress;
+                try {
+                        updatedAddress = addressService.update(id, request.userId(), completeRequest, ifMatch);
+                } catch (PreconditionFailedException | ObjectOptimisticLockingFailureException e) {
+                        return preconditionFailed();
+                }
 
-                return ResponseEntity.ok(ResponseRecord.success(
+                return withETag(ResponseEntity.ok(), addressService.findVersionTag(id)).body(ResponseRecord.success(
                                 "Address updated successfully",
                                 updatedAddress));
         }
 
+        @PatchMapping(value = "/{id}", consumes = { MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE })
+        public ResponseEntity<ResponseRecord<AddressResponseDTO>> patch(
+                        @AuthenticationPrincipal AuthenticatedUser currentUser,
+                        @PathVariable("id") Long id,
+                        @RequestBody JsonNode patch,
+                        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+                Optional<AddressResponseDTO> found = addressService.findOptionalById(id);
+                if (found.isEmpty()) {
+                        return addressNotFound();
+                }
+                AddressResponseDTO current = found.get();
+                JsonNode newOwner = patch.get("userId");
+                boolean foreignOwner = !current.user().id().equals(currentUser.id())
+                                || (newOwner != null && newOwner.asLong() != currentUser.id());
+                if (foreignOwner && !currentUser.admin()) {
+                        return ResponseEntity.status(403).body(ResponseRecord.error(403, "Forbidden"));
+                }
+                // Logradouro, bairro, cidade e UF só vêm do ViaCEP, junto com um CEP novo, como no PUT
+                for (String field : CEP_FIELDS) {
+                        if (patch.has(field)) {
+                                return ResponseEntity.badRequest()
+                                                .body(ResponseRecord.error(400, "Campo não suportado: " + field));
+                        }
+                }
+                if (patch.hasNonNull("cep") && patch instanceof ObjectNode patchObject) {
+                        ViaCepResponse viaCepResponse;
+                        try {
+                                viaCepResponse = viaCepService.getAddressFromCep(patch.get("cep").asText());
+                        } catch (IllegalArgumentException e) {
+                                return ResponseEntity.badRequest().body(ResponseRecord.error(400, e.getMessage()));
+                        }
+                        patchObject.put("cep", viaCepResponse.cep());
+                        patchObject.put("street", viaCepResponse.street());
+                        patchObject.put("neighborhood", viaCepResponse.neighborhood());
+                        patchObject.put("city", viaCepResponse.city());
+                        patchObject.put("state", viaCepResponse.state());
+                }
+
+                AddressResponseDTO patchedAddress;
+                try {
+                        patchedAddress = addressService.patch(id, patch, ifMatch);
+                } catch (PreconditionFailedException | ObjectOptimisticLockingFailureException e) {
+                        return preconditionFailed();
+                } catch (EntityNotFoundException e) {
+                        return addressNotFound();
+                } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest().body(ResponseRecord.error(400, e.getMessage()));
+                } catch (DataIntegrityViolationException e) {
+                        // O novo dono foi removido fisicamente entre a consulta e o flush
+                        if (isForeignKeyViolation(e)) {
+                                return ResponseEntity.badRequest()
+                                                .body(ResponseRecord.error(400, "Usuário não encontrado"));
+                        }
+                        return ResponseEntity.status(409).body(ResponseRecord.error(409, "Conflict"));
+                }
+                return withETag(ResponseEntity.ok(), addressService.findVersionTag(id)).body(ResponseRecord.success(
+                                "Address updated successfully",
+                                patchedAddress));
+        }
+
+        @DeleteMapping(params = "userId")
+        public ResponseEntity<ResponseRecord<Integer>> deleteAllByUser(
+                        @AuthenticationPrincipal AuthenticatedUser currentUser,
+                        @RequestParam("userId") Long userId) {
+
+                if (!currentUser.admin()) {
+                        return ResponseEntity.status(403).body(ResponseRecord.error(403, "Forbidden"));
+                }
+                return ResponseEntity.ok(ResponseRecord.success(
+                                "Addresses deleted successfully",
+                                addressService.deleteAllByUser(userId)));
+        }
+
         @DeleteMapping("/{id}")
         public ResponseEntity<ResponseRecord<Void>> delete(
-                        @RequestHeader("Authorization") String token,
-                        @PathVariable("id") Long id) throws AuthException {
+                        @AuthenticationPrincipal AuthenticatedUser currentUser,
+                        @PathVariable("id") Long id,
+                        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-                Long userId = authService.getUserIdFromToken(token);
-                AddressResponseDTO addressResponseDTO = addressService.findById(id);
-                if (addressResponseDTO.user().id() != null && !addressResponseDTO.user().id().equals(userId)
-                                && !authService.isAdmin(token)) {
+                Optional<AddressResponseDTO> found = addressService.findOptionalById(id);
+                if (found.isEmpty()) {
+                        return addressNotFound();
+                }
+                AddressResponseDTO addressResponseDTO = found.get();
+                if (addressResponseDTO.user().id() != null && !addressResponseDTO.user().id().equals(currentUser.id())
+                                && !currentUser.admin()) {
                         return ResponseEntity.status(403).body(ResponseRecord.error(403, "Forbidden"));
                 }
-                addressResponseDTO = addressService.delete(id);
+                try {
+                        addressService.delete(id, ifMatch);
+                } catch (PreconditionFailedException | ObjectOptimisticLockingFailureException e) {
+                        return preconditionFailed();
+                }
 
                 return ResponseEntity.ok(ResponseRecord.success(
                                 "Address deleted successfully",
                                 null));
         }
-}
\ No newline at end of file
+
+        // SQLSTATE do Postgres para foreign_key_violation
+        private static boolean isForeignKeyViolation(DataIntegrityViolationException e) {
+                return NestedExceptionUtils.getMostSpecificCause(e) instanceof SQLException sql
+                                && "23503".equals(sql.getSQLState());
+        }
+
+        private static <T> ResponseEntity<ResponseRecord<T>> addressNotFound() {
+                return ResponseEntity.status(404).body(ResponseRecord.error(404, "Address not found"));
+        }
+
+        // If-Match que não confere, ou versão alterada por outra requisição antes do UPDATE
+        private static <T> ResponseEntity<ResponseRecord<T>> preconditionFailed() {
+                return ResponseEntity.status(412).body(ResponseRecord.error(412, "Precondition Failed"));
+        }
+
+        private static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, String versionTag) {
+                return versionTag != null ? builder.eTag(ETags.of(versionTag)) : builder;
+        }
+}
@@ -0,0 +1,38 @@
+package com.br.mesusers.address;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.br.mesusers.shared.export.ExportFormat;
+import com.br.mesusers.shared.export.RecordExportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Exporta todos os endereços, com o usuário de cada um, direto do cursor do
+ * banco para a resposta. As linhas chegam como projeções, fora do contexto de
+ * persistência.
+ */
+@Service
+public class AddressExportService {
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void export(OutputStream out, ExportFormat format) throws IOException {
+        RecordExportWriter<AddressResponseDTO> writer = new RecordExportWriter<>(AddressResponseDTO.class, format,
+                out, objectMapper);
+        try (Stream<AddressResponseDTO> addresses = addressRepository.streamAllResponses()) {
+            addresses.forEach(writer::write);
+        }
+        writer.finish();
+    }
+}
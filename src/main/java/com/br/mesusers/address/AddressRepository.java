@@ -1,14 +1,61 @@
 package com.br.mesusers.address;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
 
 public interface AddressRepository extends JpaRepository<AddressEntity, Long> {
     Page<AddressEntity> findByUserId(Long userId, Pageable pageable);
     List<AddressEntity> findByUserId(Long userId);
     Optional<AddressEntity> findByIdAndUserId(Long id, Long userId);
+
+    // Projeções de leitura com o usuário no mesmo SELECT, sem a senha e sem entidades gerenciadas
+    String RESPONSE_PROJECTION = "select new com.br.mesusers.address.AddressResponseDTO("
+            + "a.id, a.street, a.number, a.complement, a.neighborhood, a.city, a.state, a.cep, "
+            + "u.id, u.username, u.email, u.admin) from AddressEntity a join a.user u";
+
+    @Query(RESPONSE_PROJECTION + " where a.id = :id")
+    Optional<AddressResponseDTO> findResponseById(@Param("id") Long id);
+
+    @Query(value = RESPONSE_PROJECTION, countQuery = "select count(a) from AddressEntity a join a.user u")
+    Page<AddressResponseDTO> findAllResponses(Pageable pageable);
+
+    @Query(RESPONSE_PROJECTION)
+    Slice<AddressResponseDTO> findResponseSlice(Pageable pageable);
+
+    // A resposta inclui o usuário, então a tag combina as duas versões
+    @Query("select concat(cast(a.version as String), '.', cast(u.version as String)) "
+            + "from AddressEntity a join a.user u where a.id = :id")
+    Optional<String> findVersionTagById(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE addresses SET deleted_at = now(), version = version + 1 "
+            + "WHERE user_id IN (:userIds) AND deleted_at IS NULL", nativeQuery = true)
+    int softDeleteByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // Só exclui a versão lida antes; 0 linhas quer dizer que outra requisição alterou o endereço
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE addresses SET deleted_at = now(), version = version + 1 "
+            + "WHERE id = :id AND version = :version AND deleted_at IS NULL", nativeQuery = true)
+    int softDeleteByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST('addresses' AS regclass)", nativeQuery = true)
+    Long estimateCount();
+
+    // Exportação em streaming; precisa de transação aberta
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query(RESPONSE_PROJECTION + " order by a.id")
+    Stream<AddressResponseDTO> streamAllResponses();
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.br.mesusers.address;
 
+import com.br.mesusers.shared.reflection.GenerateMapper;
 import com.br.mesusers.user.UserRequestDTO;
 
 import jakarta.validation.constraints.NotBlank;
@@ -10,6 +11,7 @@ import jakarta.validation.constraints.Size;
  * DTO (Data Transfer Object) para representar os dados de requisição de
  * endereço
  */
+@GenerateMapper(AddressEntity.class)
 public record AddressRequestDTO(
         @NotBlank(message = "CEP é obrigatório") @Pattern(regexp = "\\d{8}", message = "CEP deve conter 8 dígitos") String cep,
 
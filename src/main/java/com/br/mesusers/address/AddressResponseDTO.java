@@ -30,4 +30,11 @@ public record AddressResponseDTO(
                         addressEntity.getUser().getAdmin()));
     }
 
+    // Usado pelas projeções JPQL, que não constroem records aninhados
+    public AddressResponseDTO(Long id, String street, String number, String complement, String neighborhood,
+            String city, String state, String cep, Long userId, String username, String email, Boolean admin) {
+        this(id, street, number, complement, neighborhood, city, state, cep,
+                new UserResponseDTO(userId, username, email, admin));
+    }
+
 }
\ No newline at end of file
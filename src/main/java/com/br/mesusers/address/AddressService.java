@@ -1,26 +1,57 @@
 package com.br.mesusers.address;
 
+import com.br.mesusers.shared.http.ETags;
+import com.br.mesusers.shared.http.MergePatch;
+import com.br.mesusers.shared.http.PreconditionFailedException;
+import com.br.mesusers.shared.pagination.CachedCount;
+import com.br.mesusers.shared.pagination.CountMode;
+import com.br.mesusers.shared.records.PaginatedResponse;
 import com.br.mesusers.shared.reflection.DTOMapper;
+import com.br.mesusers.shared.validation.Violations;
 import com.br.mesusers.user.UserEntity;
 import com.br.mesusers.user.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Validator;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class AddressService {
 
+    private static final long ESTIMATED_COUNT_TTL_MS = 5_000;
+    private static final Set<String> PATCHABLE_FIELDS = Set.of(
+            "cep", "number", "complement", "street", "neighborhood", "city", "state", "userId");
+
     @Autowired
     private AddressRepository addressRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private Validator validator;
+
+    private final CachedCount estimatedAddressCount = new CachedCount(this::estimateAddressCount,
+            ESTIMATED_COUNT_TTL_MS);
+
     public AddressResponseDTO create(AddressRequestDTO request) {
         UserEntity user = userRepository.findById(request.userId())
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
@@ -34,28 +65,82 @@ public class AddressService {
         return new AddressResponseDTO(address);
     }
 
+    /**
+     * Cria vários endereços numa transação, carregando todos os usuários
+     * envolvidos numa única consulta; os INSERTs saem em batch no flush.
+     */
+    @Transactional
+    public List<AddressResponseDTO> createAll(List<AddressRequestDTO> requests) {
+        Map<Long, UserEntity> users = userRepository.findAllById(
+                requests.stream().map(AddressRequestDTO::userId).filter(Objects::nonNull).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(UserEntity::getId, Function.identity()));
+
+        List<AddressEntity> addresses = new ArrayList<>(requests.size());
+        for (AddressRequestDTO request : requests) {
+            UserEntity user = users.get(request.userId());
+            if (user == null) {
+                throw new EntityNotFoundException("Usuário não encontrado");
+            }
+            AddressEntity address = DTOMapper.transform(request, AddressEntity.class);
+            address.setUser(user);
+            address.setCep(request.cep().replaceAll("[^0-9]", ""));
+            addresses.add(address);
+        }
+        return addressRepository.saveAll(addresses).stream()
+                .map(address -> new AddressResponseDTO(address))
+                .toList();
+    }
+
     public AddressResponseDTO findById(Long id) {
-        AddressEntity address = addressRepository.findById(id)
+        return addressRepository.findResponseById(id)
                 .orElseThrow(() -> new RuntimeException("Endereço não encontrado"));
-        return new AddressResponseDTO(address);
+    }
+
+    public Optional<AddressResponseDTO> findOptionalById(Long id) {
+        return addressRepository.findResponseById(id);
+    }
+
+    public String findVersionTag(Long id) {
+        return addressRepository.findVersionTagById(id).orElse(null);
     }
 
     public Page<AddressResponseDTO> findAll(int page, int pageSize) {
         Pageable pageable = PageRequest.of(page - 1, pageSize);
-        return addressRepository.findAll(pageable)
-                .map(address -> new AddressResponseDTO(address));
+        return addressRepository.findAllResponses(pageable);
+    }
+
+    public PaginatedResponse<AddressResponseDTO> findSlice(int page, int pageSize, CountMode countMode) {
+        Slice<AddressResponseDTO> slice = addressRepository.findResponseSlice(PageRequest.of(page - 1, pageSize));
+        if (countMode == CountMode.ESTIMATED) {
+            return PaginatedResponse.estimated(slice.getContent(), page, pageSize, slice.hasNext(),
+                    estimatedAddressCount.get());
+        }
+        return PaginatedResponse.withoutCount(slice.getContent(), page, pageSize, slice.hasNext());
+    }
+
+    private long estimateAddressCount() {
+        Long estimate = addressRepository.estimateCount();
+        return estimate != null && estimate >= 0 ? estimate : addressRepository.count();
     }
 
     public long countAll() {
         return addressRepository.count();
     }
 
-    public AddressResponseDTO update(Long id, Long userId, AddressRequestDTO request) {
+    /**
+     * @param ifMatch {@code If-Match} da requisição, conferido contra a versão
+     *                lida aqui; {@code null} quando não há pré-condição
+     * @throws PreconditionFailedException se a versão não confere
+     */
+    @Transactional
+    public AddressResponseDTO update(Long id, Long userId, AddressRequestDTO request, String ifMatch) {
         UserEntity user = userRepository.findById(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Usuário não encontrado"));
 
         AddressEntity address = addressRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Endereço não encontrado"));
+        ETags.requireMatch(ifMatch, versionTag(address));
 
         String cleanedCep = request.cep().replaceAll("[^0-9]", "");
         address.setCep(cleanedCep);
@@ -71,10 +156,65 @@ public class AddressService {
 
     }
 
-    public AddressResponseDTO delete(Long id) {
+    /**
+     * JSON Merge Patch sobre o endereço. Troca de dono carrega o usuário pelo
+     * {@code findById}, que respeita a exclusão lógica: a chave estrangeira
+     * aceitaria um usuário já excluído. O endereço resultante passa pelas
+     * mesmas regras do {@link AddressRequestDTO} que o PUT. A resposta sai da
+     * projeção, que força o flush.
+     *
+     * @throws IllegalArgumentException se o patch ou o endereço resultante
+     *                                  forem inválidos
+     */
+    @Transactional
+    public AddressResponseDTO patch(Long id, JsonNode patch, String ifMatch) {
+        MergePatch.requireObject(patch, PATCHABLE_FIELDS);
+        AddressEntity address = addressRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Endereço não encontrado"));
+        ETags.requireMatch(ifMatch, versionTag(address));
+
+        MergePatch.text(patch, "cep", false, address::getCep, cep -> address.setCep(cep.replaceAll("[^0-9]", "")));
+        MergePatch.text(patch, "number", false, address::getNumber, address::setNumber);
+        MergePatch.text(patch, "complement", true, address::getComplement, address::setComplement);
+        MergePatch.text(patch, "street", false, address::getStreet, address::setStreet);
+        MergePatch.text(patch, "neighborhood", false, address::getNeighborhood, address::setNeighborhood);
+        MergePatch.text(patch, "city", false, address::getCity, address::setCity);
+        MergePatch.text(patch, "state", false, address::getState, address::setState);
+        MergePatch.id(patch, "userId", () -> address.getUser().getId(),
+                userId -> address.setUser(userRepository.findById(userId)
+                        .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado"))));
+        // Uma exceção aqui desfaz a transação: o endereço alterado nunca chega ao flush
+        String error = Violations.first(validator.validate(new AddressRequestDTO(address.getCep(),
+                address.getNumber(), address.getComplement(), address.getStreet(), address.getNeighborhood(),
+                address.getCity(), address.getState(), address.getUser().getId())));
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+
+        return addressRepository.findResponseById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Endereço não encontrado"));
+    }
+
+    @Transactional
+    public int deleteAllByUser(Long userId) {
+        return addressRepository.softDeleteByUserIdIn(List.of(userId));
+    }
+
+    // Exclusão lógica; a linha é removida depois pelo DeletedRowPurger
+    @Transactional
+    public AddressResponseDTO delete(Long id, String ifMatch) {
         AddressEntity address = addressRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Endereço não encontrado"));
-        addressRepository.delete(address);
-        return new AddressResponseDTO(address);
+        ETags.requireMatch(ifMatch, versionTag(address));
+        AddressResponseDTO deleted = new AddressResponseDTO(address);
+        if (addressRepository.softDeleteByIdAndVersion(id, address.getVersion()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(AddressEntity.class, id);
+        }
+        return deleted;
+    }
+
+    // Mesmo formato do findVersionTagById: versão do endereço e do usuário
+    private static String versionTag(AddressEntity address) {
+        return address.getVersion() + "." + address.getUser().getVersion();
     }
 }
\ No newline at end of file
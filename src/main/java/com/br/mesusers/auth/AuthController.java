@@ -1,6 +1,7 @@
 package com.br.mesusers.auth;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,6 +14,7 @@ import com.br.mesusers.shared.records.ResponseRecord;
 import com.br.mesusers.user.UserResponseDTO;
 
 import jakarta.security.auth.message.AuthException;
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("api/auth")
@@ -21,24 +23,28 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
     @PostMapping("/login")
     public ResponseEntity<ResponseRecord<AuthResponseDTO>> login(
-            @RequestBody LoginRequestDTO loginRequest) {
+            @RequestBody LoginRequestDTO loginRequest,
+            HttpServletRequest request) {
+        long retryAfterMs = loginRateLimiter.tryAcquire(loginRequest.email(), request.getRemoteAddr());
+        if (retryAfterMs > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMs + 999) / 1000))
+                    .body(ResponseRecord.error(HttpStatus.TOO_MANY_REQUESTS.value(),
+                            "Muitas tentativas de login, tente novamente mais tarde"));
+        }
         try {
-            String token = authService.authenticate(loginRequest);
-            Long userId = authService.getUserIdFromToken(token);
-            boolean isAdmin = authService.isAdmin(token);
-
-            AuthResponseDTO response = new AuthResponseDTO(
-                    token,
-                    "Bearer",
-                    authService.getJwtExpirationMs(),
-                    userId,
-                    isAdmin);
+            TokenIssuance issuance = authService.authenticate(loginRequest);
+            loginRateLimiter.recordSuccess(loginRequest.email());
 
             return ResponseEntity.ok(
-                    ResponseRecord.success("Login realizado com sucesso", response));
+                    ResponseRecord.success("Login realizado com sucesso", toResponse(issuance)));
         } catch (AuthException e) {
+            loginRateLimiter.recordFailure(loginRequest.email());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ResponseRecord.error(HttpStatus.UNAUTHORIZED.value(), e.getMessage()));
         }
@@ -48,9 +54,10 @@ public class AuthController {
     public ResponseEntity<ResponseRecord<UserResponseDTO>> validateToken(
             @RequestHeader("Authorization") String authorization) {
         try {
-            String token = authorization.replace("Bearer ", "").trim();
-            authService.validateToken(token);
-            UserResponseDTO user = authService.reauthenticate(token);
+            if (!authorization.startsWith("Bearer ")) {
+                throw new AuthException("Token malformado");
+            }
+            UserResponseDTO user = authService.reauthenticate(authorization.substring(7).trim());
             return ResponseEntity.ok(ResponseRecord.success(user));
         } catch (AuthException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -58,25 +65,40 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<ResponseRecord<Void>> logout(
+            @RequestHeader("Authorization") String authorization) {
+        try {
+            String token = authorization.replace("Bearer ", "").trim();
+            authService.revoke(token);
+            return ResponseEntity.ok(ResponseRecord.success("Logout realizado com sucesso", null));
+        } catch (AuthException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ResponseRecord.error(HttpStatus.UNAUTHORIZED.value(), e.getMessage()));
+        }
+    }
+
     @PostMapping("/refresh")
     public ResponseEntity<ResponseRecord<AuthResponseDTO>> refreshToken(
             @RequestHeader("Authorization") String authorization) {
         try {
             String oldToken = authorization.replace("Bearer ", "").trim();
-            String newToken = authService.refreshToken(oldToken);
-
-            AuthResponseDTO response = new AuthResponseDTO(
-                    newToken,
-                    "Bearer",
-                    authService.getJwtExpirationMs(),
-                    authService.getUserIdFromToken(newToken),
-                    authService.isAdmin(newToken));
+            TokenIssuance issuance = authService.refreshToken(oldToken);
 
             return ResponseEntity.ok(
-                    ResponseRecord.success("Token atualizado com sucesso", response));
+                    ResponseRecord.success("Token atualizado com sucesso", toResponse(issuance)));
         } catch (AuthException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ResponseRecord.error(HttpStatus.UNAUTHORIZED.value(), e.getMessage()));
         }
     }
+
+    private AuthResponseDTO toResponse(TokenIssuance issuance) {
+        return new AuthResponseDTO(
+                issuance.token(),
+                "Bearer",
+                issuance.expiresInMs(),
+                issuance.userId(),
+                issuance.admin());
+    }
 }
\ No newline at end of file
@@ -1,8 +1,12 @@
 package com.br.mesusers.auth;
 
+import com.br.mesusers.shared.cache.ExpiringCache;
+import com.br.mesusers.user.RegisteredEmailFilter;
 import com.br.mesusers.user.UserEntity;
 import com.br.mesusers.user.UserRepository;
 import com.br.mesusers.user.UserResponseDTO;
+import com.br.mesusers.user.UserSnapshot;
+import com.br.mesusers.user.UserSnapshotCache;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
@@ -13,31 +17,49 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 @Service
 public class AuthService {
 
     private final UserRepository userRepository;
+    private final UserSnapshotCache userSnapshotCache;
+    private final RegisteredEmailFilter registeredEmailFilter;
     private final PasswordEncoder passwordEncoder;
+    private final TokenDenylist tokenDenylist;
     private final SecretKey jwtSecretKey;
+    private final JwtParser jwtParser;
+    private final ExpiringCache<ByteBuffer, Claims> verifiedClaims = new ExpiringCache<>(VERIFIED_CLAIMS_CACHE_SIZE);
     private static final long JWT_EXPIRATION_MS = TimeUnit.DAYS.toMillis(1);
+    private static final int VERIFIED_CLAIMS_CACHE_SIZE = 10_000;
 
     public AuthService(
             UserRepository userRepository,
+            UserSnapshotCache userSnapshotCache,
+            RegisteredEmailFilter registeredEmailFilter,
             PasswordEncoder passwordEncoder,
+            TokenDenylist tokenDenylist,
             @Value("${jwt.secret.key}") String secretKey) {
         this.userRepository = userRepository;
+        this.userSnapshotCache = userSnapshotCache;
+        this.registeredEmailFilter = registeredEmailFilter;
         this.passwordEncoder = passwordEncoder;
+        this.tokenDenylist = tokenDenylist;
         this.jwtSecretKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.jwtParser = Jwts.parser().verifyWith(jwtSecretKey).build();
     }
 
-    public String refreshToken(String token) throws AuthException {
+    public TokenIssuance refreshToken(String token) throws AuthException {
         Claims claims = validateAndParseToken(token);
-        UserEntity user = userRepository.findByEmail(claims.getSubject())
+        UserSnapshot user = userSnapshotCache.findByEmail(claims.getSubject())
                 .orElseThrow(() -> new AuthException("Usuário não encontrado"));
-        return generateJwtToken(user);
+        return issue(user.id(), user.email(), user.admin());
     }
 
     public long getJwtExpirationMs() {
@@ -46,17 +68,31 @@ public class AuthService {
 
     public UserResponseDTO reauthenticate(String token) throws AuthException {
         Claims claims = validateAndParseToken(token);
-        UserEntity user = userRepository.findByEmail(claims.getSubject())
+        UserSnapshot user = userSnapshotCache.findByEmail(claims.getSubject())
                 .orElseThrow(() -> new AuthException("Usuário não encontrado"));
 
         return new UserResponseDTO(
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
-                user.getAdmin());
+                user.id(),
+                user.username(),
+                user.email(),
+                user.admin());
     }
 
-    public String authenticate(LoginRequestDTO loginRequest) throws AuthException {
+    /**
+     * Monta o principal da requisição a partir de claims já validadas. O perfil
+     * vem do snapshot em cache, não do token, para que promoções, rebaixamentos
+     * e exclusões valham imediatamente.
+     */
+    public AuthenticatedUser authenticatedUser(Claims claims) throws AuthException {
+        UserSnapshot user = userSnapshotCache.findByEmail(claims.getSubject())
+                .orElseThrow(() -> new AuthException("Usuário não encontrado"));
+        return new AuthenticatedUser(user.id(), user.email(), user.admin());
+    }
+
+    public TokenIssuance authenticate(LoginRequestDTO loginRequest) throws AuthException {
+        if (registeredEmailFilter.isDefinitelyAbsent(loginRequest.email())) {
+            throw new AuthException("Usuário não encontrado");
+        }
         UserEntity user = userRepository.findByEmail(loginRequest.email())
                 .orElseThrow(() -> new AuthException("Usuário não encontrado"));
 
@@ -64,20 +100,37 @@ public class AuthService {
             throw new AuthException("Credenciais inválidas");
         }
 
-        return generateJwtToken(user);
+        return issue(user.getId(), user.getEmail(), user.getAdmin());
     }
 
     public String generateJwtToken(UserEntity user) {
-        String roles = user.getAdmin() ? "ADMIN,USER" : "USER";
-
-        return Jwts.builder()
-                .subject(user.getEmail())
-                .claim("userId", user.getId())
-                .claim("roles", roles)
-                .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION_MS))
+        return issue(user.getId(), user.getEmail(), user.getAdmin()).token();
+    }
+
+    private TokenIssuance issue(Long userId, String email, boolean admin) {
+        long issuedAt = System.currentTimeMillis();
+        String token = Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(email)
+                .claim("userId", userId)
+                .claim("roles", admin ? "ADMIN,USER" : "USER")
+                .issuedAt(new Date(issuedAt))
+                .expiration(new Date(issuedAt + JWT_EXPIRATION_MS))
                 .signWith(jwtSecretKey, Jwts.SIG.HS256)
                 .compact();
+        return new TokenIssuance(token, userId, admin, JWT_EXPIRATION_MS);
+    }
+
+    /**
+     * Revoga o token até a sua expiração. Tokens emitidos antes do claim
+     * {@code jti} não têm como ser identificados e seguem válidos até expirar.
+     */
+    public void revoke(String token) throws AuthException {
+        Claims claims = validateAndParseToken(token);
+        if (claims.getId() == null) {
+            throw new AuthException("Token sem identificador não pode ser revogado");
+        }
+        tokenDenylist.revoke(claims.getId(), claims.getExpiration().getTime());
     }
 
     public Long getCurrentUserId(String token) throws AuthException {
@@ -101,6 +154,12 @@ public class AuthService {
         return claims.get("userId", Long.class);
     }
 
+    /**
+     * Valida a assinatura e a expiração do token. Claims já verificadas ficam
+     * em cache, indexadas pelo SHA-256 do token, até a expiração do próprio
+     * token; repetir o mesmo token não refaz o HMAC nem o parse do JSON. A
+     * revogação é conferida sempre, inclusive quando as claims vêm do cache.
+     */
     public Claims validateAndParseToken(String token) throws AuthException {
         if (token.startsWith("Bearer ")) {
             token = token.substring(7);
@@ -108,12 +167,22 @@ public class AuthService {
         if (token.isEmpty()) {
             throw new AuthException("Token inválido");
         }
+        ByteBuffer tokenDigest = digest(token);
+        Claims cached = verifiedClaims.get(tokenDigest);
+        Claims claims = cached != null ? cached : parse(token, tokenDigest);
+        if (tokenDenylist.isRevoked(claims.getId())) {
+            throw new AuthException("Token revogado");
+        }
+        return claims;
+    }
+
+    private Claims parse(String token, ByteBuffer tokenDigest) throws AuthException {
         try {
-            return Jwts.parser()
-                    .verifyWith(jwtSecretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            if (claims.getExpiration() != null) {
+                verifiedClaims.put(tokenDigest, claims, claims.getExpiration().getTime());
+            }
+            return claims;
         } catch (ExpiredJwtException ex) {
             throw new AuthException("Token expirado", ex);
         } catch (JwtException | IllegalArgumentException ex) {
@@ -124,4 +193,13 @@ public class AuthService {
     public Claims validateToken(String token) throws AuthException {
         return validateAndParseToken(token);
     }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
 }
\ No newline at end of file
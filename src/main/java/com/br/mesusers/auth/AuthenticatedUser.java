@@ -0,0 +1,27 @@
+package com.br.mesusers.auth;
+
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Usuário autenticado da requisição, montado uma única vez pelo
+ * {@code JwtAuthenticationFilter}. Chega aos controllers via
+ * {@code @AuthenticationPrincipal}, sem nova consulta ao banco.
+ */
+public record AuthenticatedUser(
+        Long id,
+        String email,
+        boolean admin) {
+
+    private static final List<GrantedAuthority> USER_AUTHORITIES = List.of(
+            new SimpleGrantedAuthority("ROLE_USER"));
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES = List.of(
+            new SimpleGrantedAuthority("ROLE_ADMIN"),
+            new SimpleGrantedAuthority("ROLE_USER"));
+
+    public List<GrantedAuthority> getAuthorities() {
+        return admin ? ADMIN_AUTHORITIES : USER_AUTHORITIES;
+    }
+}
@@ -0,0 +1,179 @@
+package com.br.mesusers.auth;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Limita as tentativas de login por email e por IP antes de qualquer consulta
+ * ao banco ou hash de senha.
+ *
+ * Cada chave cai em duas posições de um {@link AtomicLongArray}, escolhidas por
+ * hashes independentes, que guardam o "theoretical arrival time" do GCRA,
+ * equivalente a um token bucket: uma tentativa é aceita enquanto o TAT de
+ * alguma das duas posições não passar de {@code agora + tolerância}. Como num
+ * count-min sketch, uma chave só é bloqueada por outra se colidir com chaves
+ * ruidosas nas duas posições; só chaves com o mesmo {@code hashCode} dividem
+ * sempre o limite. Não há locks nem alocação por chamada, só CAS.
+ *
+ * Falhas de credencial empurram o TAT do email adiante em intervalos que
+ * dobram a cada erro seguido; um login bem-sucedido zera a sequência, e ela
+ * também recomeça quando a falha chega depois de o TAT já ter passado.
+ */
+@Component
+public class LoginRateLimiter implements MeterBinder {
+
+    private static final int STRIPES = 8192;
+    private static final int MAX_BACKOFF_SHIFT = 6;
+
+    private final Bucket byEmail;
+    private final Bucket byAddress;
+    private final LongSupplier clock;
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public LoginRateLimiter(
+            @Value("${security.login.attempts-per-minute.email:5}") int emailAttemptsPerMinute,
+            @Value("${security.login.attempts-per-minute.ip:30}") int addressAttemptsPerMinute) {
+        this(emailAttemptsPerMinute, addressAttemptsPerMinute, System::nanoTime);
+    }
+
+    LoginRateLimiter(int emailAttemptsPerMinute, int addressAttemptsPerMinute, LongSupplier nanoClock) {
+        this.byEmail = new Bucket(emailAttemptsPerMinute);
+        this.byAddress = new Bucket(addressAttemptsPerMinute);
+        this.clock = nanoClock;
+    }
+
+    /**
+     * Consome uma tentativa para o par email/IP.
+     *
+     * @return 0 se a tentativa pode seguir; caso contrário, quantos
+     *         milissegundos esperar antes de tentar de novo
+     */
+    public long tryAcquire(String email, String remoteAddress) {
+        long now = clock.getAsLong();
+        long waitNanos = byAddress.acquire(remoteAddress, now);
+        if (waitNanos == 0) {
+            waitNanos = byEmail.acquire(normalize(email), now);
+        }
+        if (waitNanos > 0) {
+            rejected.increment();
+            return Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        }
+        allowed.increment();
+        return 0;
+    }
+
+    public void recordFailure(String email) {
+        byEmail.penalize(normalize(email), clock.getAsLong());
+    }
+
+    public void recordSuccess(String email) {
+        byEmail.reset(normalize(email));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.login.throttle.allowed", allowed, LongAdder::sum)
+                .description("Tentativas de login liberadas pelo limitador")
+                .register(registry);
+        FunctionCounter.builder("auth.login.throttle.rejected", rejected, LongAdder::sum)
+                .description("Tentativas de login recusadas pelo limitador")
+                .register(registry);
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static int firstStripe(int h) {
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    // Bits altos do produto pela razão áurea: independentes dos bits baixos usados por firstStripe
+    static int secondStripe(int h) {
+        return (h * 0x9E3779B9) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(STRIPES));
+    }
+
+    private static final class Bucket {
+
+        private final AtomicLongArray arrivalTimes = new AtomicLongArray(STRIPES);
+        private final AtomicIntegerArray failures = new AtomicIntegerArray(STRIPES);
+        private final long intervalNanos;
+        private final long toleranceNanos;
+
+        Bucket(int attemptsPerMinute) {
+            if (attemptsPerMinute <= 0) {
+                throw new IllegalArgumentException("attemptsPerMinute deve ser positivo");
+            }
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / attemptsPerMinute;
+            this.toleranceNanos = intervalNanos * (attemptsPerMinute - 1);
+        }
+
+        long acquire(String key, long now) {
+            int h = key == null ? 0 : key.hashCode();
+            int first = firstStripe(h);
+            int second = secondStripe(h);
+            // Sem curto-circuito: a posição livre também consome a tentativa
+            long wait = acquire(first, now);
+            return second == first ? wait : Math.min(wait, acquire(second, now));
+        }
+
+        void penalize(String key, long now) {
+            int h = key == null ? 0 : key.hashCode();
+            int first = firstStripe(h);
+            int second = secondStripe(h);
+            penalize(first, now);
+            if (second != first) {
+                penalize(second, now);
+            }
+        }
+
+        void reset(String key) {
+            int h = key == null ? 0 : key.hashCode();
+            failures.set(firstStripe(h), 0);
+            failures.set(secondStripe(h), 0);
+        }
+
+        private long acquire(int stripe, long now) {
+            while (true) {
+                long current = arrivalTimes.get(stripe);
+                long tat = Math.max(current, now);
+                long wait = tat - now - toleranceNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (arrivalTimes.compareAndSet(stripe, current, tat + intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+        private void penalize(int stripe, long now) {
+            if (arrivalTimes.get(stripe) <= now) {
+                // A punição anterior já venceu: a sequência de falhas recomeça
+                failures.set(stripe, 0);
+            }
+            int shift = Math.min(failures.getAndIncrement(stripe), MAX_BACKOFF_SHIFT);
+            long penalty = intervalNanos << shift;
+            while (true) {
+                long current = arrivalTimes.get(stripe);
+                if (arrivalTimes.compareAndSet(stripe, current, Math.max(current, now) + penalty)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.br.mesusers.auth;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.br.mesusers.shared.structures.BloomFilter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Tokens revogados antes da expiração, indexados pelo {@code jti}. Um
+ * {@link BloomFilter} na frente responde "não revogado" para quase todos os
+ * tokens sem tocar no mapa. Cada entrada vive só até a expiração do próprio
+ * token; a limpeza periódica remove as vencidas e reconstrói o filtro no
+ * tamanho do que sobrou.
+ */
+@Component
+public class TokenDenylist implements MeterBinder {
+
+    private static final int MIN_FILTER_CAPACITY = 1_024;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final ConcurrentHashMap<String, Long> expiryByTokenId = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    private volatile BloomFilter filter = new BloomFilter(MIN_FILTER_CAPACITY, FALSE_POSITIVE_RATE);
+    private int filterCapacity = MIN_FILTER_CAPACITY;
+
+    public TokenDenylist() {
+        this(System::currentTimeMillis);
+    }
+
+    TokenDenylist(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = expiryByTokenId.get(tokenId);
+        return expiresAt != null && expiresAt > clock.getAsLong();
+    }
+
+    public synchronized void revoke(String tokenId, long expiresAtMillis) {
+        if (expiresAtMillis <= clock.getAsLong()) {
+            return;
+        }
+        expiryByTokenId.put(tokenId, expiresAtMillis);
+        if (expiryByTokenId.size() > filterCapacity) {
+            rebuildFilter();
+        } else {
+            filter.put(tokenId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.token-denylist.purge-interval-ms:60000}")
+    public synchronized void purgeExpired() {
+        long now = clock.getAsLong();
+        if (expiryByTokenId.values().removeIf(expiresAt -> expiresAt <= now)) {
+            rebuildFilter();
+        }
+    }
+
+    public int size() {
+        return expiryByTokenId.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.token.denylist.size", this, TokenDenylist::size)
+                .description("Tokens revogados ainda não expirados")
+                .register(registry);
+    }
+
+    private void rebuildFilter() {
+        int capacity = Math.max(MIN_FILTER_CAPACITY, expiryByTokenId.size() * 2);
+        BloomFilter rebuilt = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+        expiryByTokenId.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+        filterCapacity = capacity;
+    }
+}
@@ -0,0 +1,12 @@
+package com.br.mesusers.auth;
+
+/**
+ * Token recém-emitido junto com os dados usados para assiná-lo, para quem
+ * emitiu não precisar validar e ler de volta o próprio token.
+ */
+public record TokenIssuance(
+        String token,
+        Long userId,
+        boolean admin,
+        long expiresInMs) {
+}
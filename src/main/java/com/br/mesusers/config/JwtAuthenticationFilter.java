@@ -1,9 +1,9 @@
 package com.br.mesusers.config;
 
 import com.br.mesusers.auth.AuthService;
-import com.br.mesusers.user.UserEntity;
+import com.br.mesusers.auth.AuthenticatedUser;
 
-import com.br.mesusers.user.UserService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,13 +21,9 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final AuthService authService;
-    private final UserService userService;
 
-    public JwtAuthenticationFilter(AuthService authService,
-            UserService userService) {
+    public JwtAuthenticationFilter(AuthService authService) {
         this.authService = authService;
-        this.userService = userService;
-
     }
 
     @Override
@@ -45,24 +41,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
 
             final String jwt = authHeader.substring(7);
-            String userEmail = authService.validateAndParseToken(jwt).getSubject();
-            UserEntity userEntity = this.authService.getCurrentUser(jwt);
-            if (userEmail != null && userEntity == null) {
-                throw new RuntimeException("Usuário não encontrado");
-            }
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            Claims claims = authService.validateAndParseToken(jwt);
+            if (claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // O principal vem das claims do token e do snapshot do usuário em cache
+                AuthenticatedUser principal = authService.authenticatedUser(claims);
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userEntity,
+                        principal,
                         null,
-                        userEntity.getAuthorities());
+                        principal.getAuthorities());
 
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
 
                 // Adiciona atributos úteis na request para acesso em controllers, se necessário
-                request.setAttribute("userId", userEntity.getId());
-                request.setAttribute("userRoles",
-                        authService.validateAndParseToken(jwt).get("roles", String.class));
+                request.setAttribute("userId", principal.id());
+                request.setAttribute("userRoles", claims.get("roles", String.class));
             }
 
         } catch (Exception e) {
@@ -75,4 +68,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-}
\ No newline at end of file
+}
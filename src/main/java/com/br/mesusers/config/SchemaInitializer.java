@@ -0,0 +1,94 @@
+package com.br.mesusers.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cria no Postgres os objetos que o {@code ddl-auto} do Hibernate não sabe
+ * gerar, como índices de expressão. Todos os comandos são idempotentes e
+ * rodam a cada subida, depois que o Hibernate atualiza as tabelas.
+ *
+ * O alinhamento das sequências é rápido e precisa valer antes do primeiro
+ * INSERT, então roda durante a inicialização do contexto. Os índices ficam
+ * para depois que a aplicação já está atendendo: um
+ * {@code CREATE INDEX CONCURRENTLY} espera todas as transações abertas na
+ * tabela (inclusive de outras instâncias) e varre a tabela inteira.
+ *
+ * Os índices são criados com {@code CONCURRENTLY} para não bloquear escritas
+ * em tabelas grandes; por isso cada comando roda fora de transação. Um
+ * {@code CREATE INDEX CONCURRENTLY} que falha no meio deixa o índice marcado
+ * como inválido, e o {@code IF NOT EXISTS} passaria a pulá-lo para sempre:
+ * antes de criar, índices inválidos são removidos e refeitos.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaInitializer.class);
+
+    static final String INVALID_INDEX = "SELECT NOT indisvalid FROM pg_index WHERE indexrelid = to_regclass(?)";
+
+    static final List<IndexDefinition> INDEXES = List.of(
+            // Buscas sem diferenciar maiúsculas e por prefixo (LIKE 'abc%') na busca de usuários
+            new IndexDefinition("users_username_lower_idx", "users (lower(username) text_pattern_ops)"),
+            new IndexDefinition("users_email_lower_idx", "users (lower(email) text_pattern_ops)"),
+            // Exclusão lógica: o expurgo e a contagem do backlog só olham as linhas excluídas
+            new IndexDefinition("users_deleted_at_idx", "users (deleted_at) WHERE deleted_at IS NOT NULL"),
+            new IndexDefinition("addresses_deleted_at_idx", "addresses (deleted_at) WHERE deleted_at IS NOT NULL"),
+            // O Postgres não indexa chaves estrangeiras sozinho; o expurgo de usuários depende desta
+            new IndexDefinition("addresses_user_id_idx", "addresses (user_id)"));
+
+    // Tabelas que nasceram com IDENTITY já têm ids: a sequência precisa começar depois deles
+    static final List<String> SEQUENCES = List.of(
+            alignSequence("users_seq", "users"),
+            alignSequence("addresses_seq", "addresses"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchemaInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach(jdbcTemplate::execute);
+    }
+
+    // Falha num índice não derruba a aplicação já no ar: ele fica inválido e é refeito na próxima subida
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        for (IndexDefinition index : INDEXES) {
+            try {
+                createIndex(index);
+            } catch (DataAccessException e) {
+                log.warn("Falha ao criar o índice {}", index.name(), e);
+            }
+        }
+    }
+
+    void createIndex(IndexDefinition index) {
+        if (jdbcTemplate.queryForList(INVALID_INDEX, Boolean.class, index.name()).contains(Boolean.TRUE)) {
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + index.name());
+        }
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + index.name() + " ON " + index.definition());
+    }
+
+    // Nunca recua a sequência; a folga de um bloco (50) cobre o primeiro bloco do otimizador pooled
+    private static String alignSequence(String sequence, String table) {
+        return "SELECT setval('" + sequence + "', GREATEST((SELECT COALESCE(MAX(id), 0) FROM " + table
+                + ") + 50, (SELECT last_value FROM " + sequence + ")))";
+    }
+
+    record IndexDefinition(String name, String definition) {
+    }
+}
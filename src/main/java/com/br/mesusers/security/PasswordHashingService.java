@@ -0,0 +1,239 @@
+package com.br.mesusers.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * {@link PasswordEncoder} da aplicação. Delega ao encoder BCrypt configurado em
+ * {@link SecurityBeansConfig}, mas executa o hashing num pool próprio do
+ * tamanho do número de CPUs, com fila limitada: quando a fila enche ou o
+ * resultado demora mais que o timeout, a chamada falha na hora com
+ * {@link PasswordHashingUnavailableException} (503) em vez de prender as
+ * threads do Tomcat atrás de uma rajada de logins.
+ *
+ * Hashes em lote ({@link #encodeAll}) dividem o mesmo pool, mas nunca ocupam
+ * todas as threads: sempre sobra uma para login e cadastro.
+ */
+@Service
+@Primary
+public class PasswordHashingService implements PasswordEncoder, MeterBinder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    // Tarefas de lote no pool (na fila ou rodando); null com uma thread só, quando o lote roda no chamador
+    private final Semaphore bulkPermits;
+    private final long timeoutMs;
+
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public PasswordHashingService(
+            @Qualifier("securityPasswordEncoder") PasswordEncoder delegate,
+            @Value("${security.password.hashing.threads:0}") int threads,
+            @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password.hashing.timeout-ms:5000}") long timeoutMs) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+        this.bulkPermits = poolSize > 1 ? new Semaphore(poolSize - 1) : null;
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Gera os hashes de uma lista de senhas, uma tarefa por senha. No máximo
+     * {@code threads - 1} tarefas de lote ficam no pool ao mesmo tempo, somando
+     * todos os chamadores; quem envia o lote espera vaga em vez de encher a
+     * fila. Tarefas recusadas pela fila rodam na própria thread chamadora.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        String[] hashes = new String[rawPasswords.size()];
+        List<Future<?>> futures = new ArrayList<>(hashes.length);
+        for (int i = 0; i < hashes.length; i++) {
+            int index = i;
+            if (!acquireBulkPermit()) {
+                encodeRange(rawPasswords, hashes, index, index + 1);
+                continue;
+            }
+            try {
+                futures.add(executor.submit(() -> {
+                    try {
+                        encodeRange(rawPasswords, hashes, index, index + 1);
+                    } finally {
+                        bulkPermits.release();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                bulkPermits.release();
+                encodeRange(rawPasswords, hashes, index, index + 1);
+            }
+        }
+        for (Future<?> future : futures) {
+            await(future);
+        }
+        return Arrays.asList(hashes);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public PasswordHashingStats stats() {
+        return new PasswordHashingStats(
+                hashCount.sum(),
+                rejected.sum(),
+                timeouts.sum(),
+                executor.getQueue().size(),
+                executor.getActiveCount());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionTimer.builder("security.password.hashing", this,
+                service -> service.hashCount.sum(),
+                service -> service.hashNanos.sum(),
+                TimeUnit.NANOSECONDS)
+                .description("Tempo de CPU gasto em encode/matches de senhas")
+                .register(registry);
+        FunctionCounter.builder("security.password.hashing.rejected", this, service -> service.rejected.sum())
+                .description("Hashes recusados com a fila cheia")
+                .register(registry);
+        FunctionCounter.builder("security.password.hashing.timeouts", this, service -> service.timeouts.sum())
+                .register(registry);
+        Gauge.builder("security.password.hashing.queue.size", executor, pool -> pool.getQueue().size())
+                .register(registry);
+        Gauge.builder("security.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timed(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingUnavailableException("Serviço de senhas sobrecarregado, tente novamente", e);
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeouts.increment();
+            throw new PasswordHashingUnavailableException("Tempo esgotado no processamento da senha", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Processamento da senha interrompido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Falha no processamento da senha", e.getCause());
+        }
+    }
+
+    private boolean acquireBulkPermit() {
+        if (bulkPermits == null) {
+            return false;
+        }
+        try {
+            bulkPermits.acquire();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Processamento da senha interrompido", e);
+        }
+    }
+
+    private void encodeRange(List<? extends CharSequence> rawPasswords, String[] hashes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            long start = System.nanoTime();
+            hashes[i] = delegate.encode(rawPasswords.get(i));
+            hashNanos.add(System.nanoTime() - start);
+            hashCount.increment();
+        }
+    }
+
+    private void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Processamento da senha interrompido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Falha no processamento da senha", e.getCause());
+        }
+    }
+
+    private <T> T timed(Callable<T> task) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return task.call();
+        } finally {
+            hashNanos.add(System.nanoTime() - start);
+            hashCount.increment();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.br.mesusers.security;
+
+public record PasswordHashingStats(
+        long hashes,
+        long rejected,
+        long timeouts,
+        int queued,
+        int active) {
+}
@@ -0,0 +1,16 @@
+package com.br.mesusers.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * O pool de hashing de senhas está saturado ou não respondeu a tempo. Vira 503
+ * para o cliente tentar de novo, em vez de segurar a thread da requisição.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    public PasswordHashingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
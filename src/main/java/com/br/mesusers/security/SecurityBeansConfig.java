@@ -1,17 +1,52 @@
 package com.br.mesusers.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Primary;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class SecurityBeansConfig {
 
+    private static final int MAX_CALIBRATED_STRENGTH = 16;
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    /**
+     * Encoder BCrypt usado pelo {@link PasswordHashingService}. Com
+     * {@code security.password.bcrypt.target-ms} maior que zero, o custo é
+     * calibrado na subida para o maior valor cujo hash fica dentro do alvo
+     * nesta máquina, nunca abaixo de {@code security.password.bcrypt.strength}.
+     */
     @Bean("securityPasswordEncoder")
-    @Primary
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password.bcrypt.strength:10}") int strength,
+            @Value("${security.password.bcrypt.target-ms:0}") long targetMs) {
+        int cost = targetMs > 0 ? calibrate(strength, targetMs) : strength;
+        return new BCryptPasswordEncoder(cost);
+    }
+
+    static int calibrate(int minStrength, long targetMs) {
+        long targetNanos = targetMs * 1_000_000L;
+        int cost = minStrength;
+        long nanos = measure(cost);
+        // Cada ponto de custo dobra o trabalho do BCrypt
+        while (cost < MAX_CALIBRATED_STRENGTH && nanos * 2 <= targetNanos) {
+            cost++;
+            nanos *= 2;
+        }
+        return cost;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode("calibracao");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibracao");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
     }
 }
@@ -0,0 +1,8 @@
+package com.br.mesusers.shared.cache;
+
+public record CacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        int size) {
+}
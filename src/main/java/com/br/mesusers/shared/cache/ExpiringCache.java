@@ -0,0 +1,128 @@
+package com.br.mesusers.shared.cache;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache em memória, limitado em número de entradas, em que cada entrada tem
+ * seu próprio instante de expiração. Entradas vencidas são descartadas na
+ * leitura.
+ *
+ * Leituras não travam nada: o mapa é um {@link ConcurrentHashMap} e cada
+ * acerto só anota na entrada a ordem do acesso. Quando o limite é passado, a
+ * gravação que passou dele varre o mapa e remove as vencidas e as menos usadas
+ * recentemente, com uma folga de 10% para que a varredura não se repita a
+ * cada gravação; a ordem LRU é, portanto, aproximada.
+ */
+public class ExpiringCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final AtomicLong accessOrder = new AtomicLong();
+    private final Object evictionLock = new Object();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpiringCache(int maxEntries) {
+        this(maxEntries, System::currentTimeMillis);
+    }
+
+    public ExpiringCache(int maxEntries, LongSupplier clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries deve ser positivo");
+        }
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis <= clock.getAsLong()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        entry.lastAccess = accessOrder.incrementAndGet();
+        hits.increment();
+        return entry.value;
+    }
+
+    public void put(K key, V value, long expiresAtMillis) {
+        if (expiresAtMillis <= clock.getAsLong()) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, expiresAtMillis, accessOrder.incrementAndGet()));
+        if (entries.size() > maxEntries) {
+            evict();
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size());
+    }
+
+    private void evict() {
+        synchronized (evictionLock) {
+            if (entries.size() <= maxEntries) {
+                return;
+            }
+            long now = clock.getAsLong();
+            entries.values().removeIf(entry -> entry.expiresAtMillis <= now);
+
+            int excess = entries.size() - maxEntries;
+            if (excess <= 0) {
+                return;
+            }
+            long[] order = entries.values().stream().mapToLong(entry -> entry.lastAccess).toArray();
+            Arrays.sort(order);
+            int target = Math.min(order.length, excess + maxEntries / 10);
+            long threshold = order[target - 1];
+
+            int removed = 0;
+            for (Map.Entry<K, Entry<V>> candidate : entries.entrySet()) {
+                if (removed >= target) {
+                    break;
+                }
+                Entry<V> entry = candidate.getValue();
+                if (entry.lastAccess <= threshold && entries.remove(candidate.getKey(), entry)) {
+                    removed++;
+                }
+            }
+            evictions.add(removed);
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAtMillis;
+        private volatile long lastAccess;
+
+        private Entry(V value, long expiresAtMillis, long lastAccess) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.br.mesusers.shared.export;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * Valor ausente ou desconhecido cai em NDJSON.
+     */
+    public static ExportFormat parse(String value) {
+        return value != null && value.trim().equalsIgnoreCase("csv") ? CSV : NDJSON;
+    }
+}
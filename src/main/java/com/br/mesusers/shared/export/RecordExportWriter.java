@@ -0,0 +1,149 @@
+package com.br.mesusers.shared.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Escreve records um a um num {@link OutputStream}, em NDJSON ou CSV, sem
+ * acumular nada além do buffer de saída. No CSV, componentes que também são
+ * records viram colunas prefixadas ({@code user.id}, {@code user.email}...).
+ *
+ * Não fecha o stream recebido.
+ */
+public class RecordExportWriter<T extends Record> {
+
+    private static final int FLUSH_EVERY_ROWS = 1_000;
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final ExportFormat format;
+    private final Writer writer;
+    private final ObjectWriter jsonWriter;
+    private final List<Column> columns;
+    private long rows;
+
+    public RecordExportWriter(Class<T> type, ExportFormat format, OutputStream out, ObjectMapper objectMapper) {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.jsonWriter = objectMapper.writerFor(type).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.columns = format == ExportFormat.CSV ? columnsOf(type, "", List.of()) : List.of();
+    }
+
+    public void write(T row) {
+        try {
+            if (format == ExportFormat.NDJSON) {
+                jsonWriter.writeValue(writer, row);
+            } else {
+                if (rows == 0) {
+                    writeCsvHeader();
+                }
+                writeCsvRow(row);
+            }
+            writer.write('\n');
+            // Descarrega logo a primeira linha e depois periodicamente: o cliente recebe bytes desde o início
+            if (++rows % FLUSH_EVERY_ROWS == 1) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void finish() throws IOException {
+        if (format == ExportFormat.CSV && rows == 0) {
+            writeCsvHeader();
+        }
+        writer.flush();
+    }
+
+    private void writeCsvHeader() throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(columns.get(i).name());
+        }
+        writer.write('\n');
+    }
+
+    private void writeCsvRow(T row) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = columns.get(i).read(row);
+            if (value != null) {
+                writeCsvValue(value.toString());
+            }
+        }
+    }
+
+    private void writeCsvValue(String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static List<Column> columnsOf(Class<?> type, String prefix, List<MethodHandle> path) {
+        List<Column> columns = new ArrayList<>();
+        for (RecordComponent component : type.getRecordComponents()) {
+            MethodHandle accessor;
+            try {
+                Method method = component.getAccessor();
+                method.setAccessible(true);
+                accessor = LOOKUP.unreflect(method).asType(ACCESSOR_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Componente inacessível: " + component.getName(), e);
+            }
+            List<MethodHandle> componentPath = new ArrayList<>(path);
+            componentPath.add(accessor);
+            if (component.getType().isRecord()) {
+                columns.addAll(columnsOf(component.getType(), prefix + component.getName() + ".", componentPath));
+            } else {
+                columns.add(new Column(prefix + component.getName(), componentPath.toArray(MethodHandle[]::new)));
+            }
+        }
+        return columns;
+    }
+
+    private record Column(String name, MethodHandle[] path) {
+        Object read(Object row) {
+            Object value = row;
+            try {
+                for (MethodHandle accessor : path) {
+                    if (value == null) {
+                        return null;
+                    }
+                    value = (Object) accessor.invokeExact(value);
+                }
+                return value;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Falha ao ler coluna " + name, e);
+            }
+        }
+    }
+}
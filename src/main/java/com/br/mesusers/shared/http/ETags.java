@@ -0,0 +1,69 @@
+package com.br.mesusers.shared.http;
+
+/**
+ * ETags fortes a partir da versão ({@code @Version}) das entidades e as
+ * comparações de {@code If-None-Match} (fraca, RFC 9110 §13.1.2) e
+ * {@code If-Match} (forte, §13.1.1).
+ */
+public final class ETags {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {
+    }
+
+    public static String of(String versionTag) {
+        return "\"" + versionTag + "\"";
+    }
+
+    /**
+     * @return {@code true} quando o cliente já tem esta versão e a resposta
+     *         pode ser 304
+     */
+    public static boolean noneMatchFails(String ifNoneMatch, String versionTag) {
+        return matches(ifNoneMatch, versionTag, true);
+    }
+
+    /**
+     * @return {@code true} quando não há pré-condição ou ela vale para esta
+     *         versão; {@code false} deve virar 412
+     */
+    public static boolean matchSucceeds(String ifMatch, String versionTag) {
+        return ifMatch == null || matches(ifMatch, versionTag, false);
+    }
+
+    /**
+     * Confere o {@code If-Match} contra a versão lida na transação que vai
+     * gravar; dali até o UPDATE quem protege é o {@code @Version}.
+     *
+     * @throws PreconditionFailedException se a pré-condição não vale
+     */
+    public static void requireMatch(String ifMatch, String versionTag) {
+        if (!matchSucceeds(ifMatch, versionTag)) {
+            throw new PreconditionFailedException();
+        }
+    }
+
+    private static boolean matches(String header, String versionTag, boolean weakComparison) {
+        if (header == null || versionTag == null) {
+            return false;
+        }
+        String expected = of(versionTag);
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith(WEAK_PREFIX)) {
+                if (!weakComparison) {
+                    continue;
+                }
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if (tag.equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,77 @@
+package com.br.mesusers.shared.http;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Aplicação de JSON Merge Patch (RFC 7396) campo a campo sobre uma entidade:
+ * campo ausente fica como está, {@code null} limpa (quando permitido) e o
+ * setter só é chamado quando o valor muda, para o Hibernate não marcar a
+ * coluna como alterada à toa.
+ *
+ * Erros de formato saem como {@link IllegalArgumentException}.
+ */
+public final class MergePatch {
+
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private MergePatch() {
+    }
+
+    public static void requireObject(JsonNode patch, Set<String> allowedFields) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("O patch deve ser um objeto JSON");
+        }
+        for (Iterator<String> names = patch.fieldNames(); names.hasNext();) {
+            String name = names.next();
+            if (!allowedFields.contains(name)) {
+                throw new IllegalArgumentException("Campo não suportado: " + name);
+            }
+        }
+    }
+
+    public static boolean text(JsonNode patch, String field, boolean nullable, Supplier<String> current,
+            Consumer<String> setter) {
+        return apply(patch, field, nullable, JsonNode::isTextual, JsonNode::asText, "texto", current, setter);
+    }
+
+    public static boolean bool(JsonNode patch, String field, Supplier<Boolean> current, Consumer<Boolean> setter) {
+        return apply(patch, field, false, JsonNode::isBoolean, JsonNode::asBoolean, "booleano", current, setter);
+    }
+
+    public static boolean id(JsonNode patch, String field, Supplier<Long> current, Consumer<Long> setter) {
+        return apply(patch, field, false, node -> node.isIntegralNumber() && node.canConvertToLong(), JsonNode::asLong,
+                "um número inteiro", current, setter);
+    }
+
+    private static <T> boolean apply(JsonNode patch, String field, boolean nullable,
+            Function<JsonNode, Boolean> accepts, Function<JsonNode, T> reader, String typeName,
+            Supplier<T> current, Consumer<T> setter) {
+        if (!patch.has(field)) {
+            return false;
+        }
+        JsonNode node = patch.get(field);
+        T value;
+        if (node.isNull()) {
+            if (!nullable) {
+                throw new IllegalArgumentException("O campo " + field + " não pode ser nulo");
+            }
+            value = null;
+        } else if (accepts.apply(node)) {
+            value = reader.apply(node);
+        } else {
+            throw new IllegalArgumentException("O campo " + field + " deve ser " + typeName);
+        }
+        if (Objects.equals(value, current.get())) {
+            return false;
+        }
+        setter.accept(value);
+        return true;
+    }
+}
@@ -0,0 +1,8 @@
+package com.br.mesusers.shared.http;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException() {
+        super("Precondition Failed");
+    }
+}
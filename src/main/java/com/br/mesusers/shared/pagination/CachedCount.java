@@ -0,0 +1,40 @@
+package com.br.mesusers.shared.pagination;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Contagem recalculada no máximo uma vez a cada {@code ttlMillis}; as leituras
+ * dentro da janela devolvem o último valor sem consultar a origem.
+ */
+public class CachedCount {
+
+    private final LongSupplier source;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private volatile long value;
+    private volatile long expiresAtMillis = Long.MIN_VALUE;
+
+    public CachedCount(LongSupplier source, long ttlMillis) {
+        this(source, ttlMillis, System::currentTimeMillis);
+    }
+
+    public CachedCount(LongSupplier source, long ttlMillis, LongSupplier clock) {
+        this.source = source;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    public long get() {
+        if (clock.getAsLong() < expiresAtMillis) {
+            return value;
+        }
+        synchronized (this) {
+            long now = clock.getAsLong();
+            if (now >= expiresAtMillis) {
+                value = source.getAsLong();
+                expiresAtMillis = now + ttlMillis;
+            }
+            return value;
+        }
+    }
+}
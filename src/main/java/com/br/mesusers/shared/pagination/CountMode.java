@@ -0,0 +1,28 @@
+package com.br.mesusers.shared.pagination;
+
+/**
+ * Como uma listagem paginada informa o total de registros.
+ *
+ * EXACT faz o {@code COUNT(*)} de sempre; NONE não conta nada e só informa se
+ * há próxima página; ESTIMATED usa a estimativa das estatísticas do Postgres,
+ * guardada em cache por alguns segundos.
+ */
+public enum CountMode {
+    EXACT,
+    NONE,
+    ESTIMATED;
+
+    /**
+     * Valor ausente ou desconhecido cai em EXACT, o comportamento original.
+     */
+    public static CountMode parse(String value) {
+        if (value != null) {
+            for (CountMode mode : values()) {
+                if (mode.name().equalsIgnoreCase(value.trim())) {
+                    return mode;
+                }
+            }
+        }
+        return EXACT;
+    }
+}
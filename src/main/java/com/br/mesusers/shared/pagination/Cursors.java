@@ -0,0 +1,70 @@
+package com.br.mesusers.shared.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica a posição da paginação por cursor (o último id entregue, ou um
+ * {@link KeysetCursor}) num token opaco em base64url, para o cliente não
+ * depender do formato interno.
+ */
+public final class Cursors {
+
+    private static final String PREFIX = "id:";
+    private static final String KEYSET_PREFIX = "key:";
+
+    private Cursors() {
+    }
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // O id vai antes do valor, que pode conter ':'
+    public static String encode(KeysetCursor position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((KEYSET_PREFIX + position.id() + ":" + position.value())
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return o último id já entregue, ou {@code null} para começar do início
+     *         quando o cursor vem vazio
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.US_ASCII);
+            if (decoded.startsWith(PREFIX)) {
+                return Long.parseLong(decoded.substring(PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // base64 ou número inválido: cai no erro abaixo
+        }
+        throw new InvalidCursorException("Cursor inválido");
+    }
+
+    /**
+     * @return a posição já entregue, ou {@code null} para começar do início
+     *         quando o cursor vem vazio
+     */
+    public static KeysetCursor decodeKeyset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':', KEYSET_PREFIX.length());
+            if (decoded.startsWith(KEYSET_PREFIX) && separator > 0) {
+                return new KeysetCursor(decoded.substring(separator + 1),
+                        Long.parseLong(decoded.substring(KEYSET_PREFIX.length(), separator)));
+            }
+        } catch (IllegalArgumentException e) {
+            // base64 ou número inválido: cai no erro abaixo
+        }
+        throw new InvalidCursorException("Cursor inválido");
+    }
+}
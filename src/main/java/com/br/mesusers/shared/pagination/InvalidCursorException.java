@@ -0,0 +1,8 @@
+package com.br.mesusers.shared.pagination;
+
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
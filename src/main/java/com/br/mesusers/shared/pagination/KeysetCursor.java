@@ -0,0 +1,8 @@
+package com.br.mesusers.shared.pagination;
+
+/**
+ * Posição de uma paginação ordenada por outra coluna além do id: o valor
+ * dessa coluna no último registro entregue e o id, que desempata.
+ */
+public record KeysetCursor(String value, long id) {
+}
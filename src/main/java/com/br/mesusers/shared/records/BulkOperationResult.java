@@ -0,0 +1,8 @@
+package com.br.mesusers.shared.records;
+
+/**
+ * Resultado de uma operação em massa: quantos ids foram pedidos e quantas
+ * linhas o comando realmente alterou.
+ */
+public record BulkOperationResult(int requested, int affected) {
+}
@@ -0,0 +1,13 @@
+package com.br.mesusers.shared.records;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CursorPaginatedResponse<T>(
+        List<T> items,
+        int limit,
+        boolean hasNext,
+        String nextCursor) {
+}
@@ -2,19 +2,37 @@ package com.br.mesusers.shared.records;
 
 import java.util.List;
 
+import com.br.mesusers.shared.pagination.CountMode;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Página de resultados. {@code totalCount} e {@code totalPages} só vêm
+ * preenchidos quando houve contagem (exata ou estimada, conforme
+ * {@code countMode}); sem contagem, {@code hasNext} diz se há mais páginas.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record PaginatedResponse<T>(
         List<?> items,
         int page,
-        int totalCount,
+        Long totalCount,
         int pageSize,
-        int totalPages) {
+        Integer totalPages,
+        Boolean hasNext,
+        CountMode countMode) {
+
+    public PaginatedResponse(List<?> items, int page, long totalCount, int pageSize, int totalPages) {
+        this(items, page, totalCount, pageSize, totalPages, page < totalPages, CountMode.EXACT);
+    }
 
-    public PaginatedResponse(List<?> items, int page, int totalCount, int pageSize, int totalPages) {
-        this.items = items;
-        this.page = page;
-        this.totalCount = totalCount;
-        this.pageSize = pageSize;
-        this.totalPages = totalPages;
+    public static <T> PaginatedResponse<T> withoutCount(List<T> items, int page, int pageSize, boolean hasNext) {
+        return new PaginatedResponse<>(items, page, null, pageSize, null, hasNext, CountMode.NONE);
     }
 
+    public static <T> PaginatedResponse<T> estimated(List<T> items, int page, int pageSize, boolean hasNext,
+            long estimatedTotal) {
+        // A estimativa pode ficar atrás da realidade: nunca menor que o que já foi visto
+        long total = Math.max(estimatedTotal, (long) (page - 1) * pageSize + items.size());
+        int totalPages = (int) Math.min(Integer.MAX_VALUE, (total + pageSize - 1) / pageSize);
+        return new PaginatedResponse<>(items, page, total, pageSize, totalPages, hasNext, CountMode.ESTIMATED);
+    }
 }
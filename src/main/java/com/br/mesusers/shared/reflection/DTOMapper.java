@@ -1,74 +1,180 @@
 package com.br.mesusers.shared.reflection;
 
-import java.lang.reflect.Constructor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Mapeia objetos entre DTOs e entidades pelo nome dos campos.
+ *
+ * A introspecção acontece uma única vez por par (origem, destino): o resultado
+ * é um {@link MappingPlan} com {@link MethodHandle}s já resolvidos, guardado
+ * num {@link ClassValue} da classe de origem e reaproveitado nas chamadas
+ * seguintes.
+ *
+ * Os pares declarados com {@link GenerateMapper} já chegam com um
+ * {@link GeneratedMapper} gerado na compilação, registrado aqui via
+ * {@link ServiceLoader}; para eles não há reflexão alguma.
+ */
 public class DTOMapper {
 
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ClassValue<Map<Class<?>, MappingPlan>> PLANS = new ClassValue<>() {
+        @Override
+        protected Map<Class<?>, MappingPlan> computeValue(Class<?> sourceClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    static {
+        for (GeneratedMapper<?, ?> mapper : ServiceLoader.load(GeneratedMapper.class, DTOMapper.class.getClassLoader())) {
+            PLANS.get(mapper.sourceType()).put(mapper.targetType(), new GeneratedPlan(mapper));
+        }
+    }
+
     public static <T> T transform(Object source, Class<T> targetClass) {
         if (source == null || targetClass == null) {
             return null;
         }
 
         try {
-            if (targetClass.isRecord()) {
-                return transformToRecord(source, targetClass);
-            } else {
-                return transformToClass(source, targetClass);
-            }
-        } catch (Exception e) {
+            return targetClass.cast(planFor(source.getClass(), targetClass).map(source));
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
             throw new RuntimeException("Falha no mapeamento DTO para " + targetClass.getSimpleName(), e);
         }
     }
 
-    private static <T> T transformToRecord(Object source, Class<T> recordClass) throws Exception {
+    private static MappingPlan planFor(Class<?> sourceClass, Class<?> targetClass) throws Exception {
+        Map<Class<?>, MappingPlan> plans = PLANS.get(sourceClass);
+        MappingPlan plan = plans.get(targetClass);
+        if (plan == null) {
+            plan = targetClass.isRecord()
+                    ? compileRecordPlan(sourceClass, targetClass)
+                    : compileClassPlan(sourceClass, targetClass);
+            MappingPlan existing = plans.putIfAbsent(targetClass, plan);
+            if (existing != null) {
+                plan = existing;
+            }
+        }
+        return plan;
+    }
+
+    private static MappingPlan compileRecordPlan(Class<?> sourceClass, Class<?> recordClass) throws Exception {
         RecordComponent[] recordComponents = recordClass.getRecordComponents();
-        Object[] args = new Object[recordComponents.length];
-        
+        MethodHandle[] getters = new MethodHandle[recordComponents.length];
+
         for (int i = 0; i < recordComponents.length; i++) {
-            String fieldName = recordComponents[i].getName();
-            Field sourceField = getField(source.getClass(), fieldName);
-            sourceField.setAccessible(true);
-            args[i] = sourceField.get(source);
+            getters[i] = getter(getField(sourceClass, recordComponents[i].getName()));
         }
         Class<?>[] paramTypes = Arrays.stream(recordComponents)
-            .map(RecordComponent::getType)
-            .toArray(Class<?>[]::new);
-            
-        Constructor<T> constructor = recordClass.getDeclaredConstructor(paramTypes);
-        return constructor.newInstance(args);
+                .map(RecordComponent::getType)
+                .toArray(Class<?>[]::new);
+
+        MethodHandle constructor = LOOKUP.unreflectConstructor(accessible(recordClass.getDeclaredConstructor(paramTypes)))
+                .asSpreader(Object[].class, paramTypes.length)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        return new RecordPlan(constructor, getters);
     }
 
-    private static <T> T transformToClass(Object source, Class<T> targetClass) throws Exception {
-        T target = targetClass.getDeclaredConstructor().newInstance();
-        
-        for (Field sourceField : source.getClass().getDeclaredFields()) {
-            sourceField.setAccessible(true);
-            Object value = sourceField.get(source);
-            
-            try {
-                Field targetField = getField(targetClass, sourceField.getName());
-                targetField.setAccessible(true);
-                targetField.set(target, value);
-            } catch (NoSuchFieldException e) {
-               
+    private static MappingPlan compileClassPlan(Class<?> sourceClass, Class<?> targetClass) throws Exception {
+        MethodHandle constructor = LOOKUP.unreflectConstructor(accessible(targetClass.getDeclaredConstructor()))
+                .asType(MethodType.methodType(Object.class));
+        List<MethodHandle> getters = new ArrayList<>();
+        List<MethodHandle> setters = new ArrayList<>();
+
+        for (Field sourceField : sourceClass.getDeclaredFields()) {
+            if (Modifier.isStatic(sourceField.getModifiers())) {
+                continue;
+            }
+            Field targetField = findField(targetClass, sourceField.getName());
+            if (targetField == null || Modifier.isStatic(targetField.getModifiers())) {
+                continue;
             }
+            getters.add(getter(sourceField));
+            setters.add(LOOKUP.unreflectSetter(accessible(targetField)).asType(SETTER_TYPE));
         }
-        
-        return target;
+
+        return new ClassPlan(constructor,
+                getters.toArray(MethodHandle[]::new),
+                setters.toArray(MethodHandle[]::new));
+    }
+
+    private static MethodHandle getter(Field field) throws IllegalAccessException {
+        return LOOKUP.unreflectGetter(accessible(field)).asType(GETTER_TYPE);
+    }
+
+    private static <A extends AccessibleObject> A accessible(A member) {
+        member.setAccessible(true);
+        return member;
     }
 
     private static Field getField(Class<?> clazz, String fieldName) throws NoSuchFieldException {
-        try {
-            return clazz.getDeclaredField(fieldName);
-        } catch (NoSuchFieldException e) {
-            Class<?> superClass = clazz.getSuperclass();
-            if (superClass != null) {
-                return getField(superClass, fieldName);
+        Field field = findField(clazz, fieldName);
+        if (field == null) {
+            throw new NoSuchFieldException(fieldName);
+        }
+        return field;
+    }
+
+    private static Field findField(Class<?> clazz, String fieldName) {
+        for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.getName().equals(fieldName)) {
+                    return field;
+                }
             }
-            throw e;
+        }
+        return null;
+    }
+
+    private interface MappingPlan {
+        Object map(Object source) throws Throwable;
+    }
+
+    private record GeneratedPlan(GeneratedMapper<?, ?> mapper) implements MappingPlan {
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object map(Object source) {
+            return ((GeneratedMapper<Object, ?>) mapper).map(source);
+        }
+    }
+
+    private record RecordPlan(MethodHandle constructor, MethodHandle[] getters) implements MappingPlan {
+        @Override
+        public Object map(Object source) throws Throwable {
+            Object[] args = new Object[getters.length];
+            for (int i = 0; i < getters.length; i++) {
+                args[i] = (Object) getters[i].invokeExact(source);
+            }
+            return (Object) constructor.invokeExact(args);
+        }
+    }
+
+    private record ClassPlan(MethodHandle constructor, MethodHandle[] getters, MethodHandle[] setters)
+            implements MappingPlan {
+        @Override
+        public Object map(Object source) throws Throwable {
+            Object target = (Object) constructor.invokeExact();
+            for (int i = 0; i < getters.length; i++) {
+                setters[i].invokeExact(target, (Object) getters[i].invokeExact(source));
+            }
+            return target;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package com.br.mesusers.shared.reflection;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Pede ao {@code MapperProcessor} que gere, em tempo de compilação, um
+ * {@link GeneratedMapper} da classe anotada para cada tipo de destino
+ * informado. O {@link DTOMapper} usa esses mapeadores no lugar da reflexão.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateMapper {
+    Class<?>[] value();
+}
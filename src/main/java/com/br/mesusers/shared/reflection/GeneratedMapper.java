@@ -0,0 +1,14 @@
+package com.br.mesusers.shared.reflection;
+
+/**
+ * Mapeador gerado pelo {@code MapperProcessor} a partir de {@link GenerateMapper}.
+ * As implementações são registradas em
+ * {@code META-INF/services/com.br.mesusers.shared.reflection.GeneratedMapper}.
+ */
+public interface GeneratedMapper<S, T> {
+    Class<S> sourceType();
+
+    Class<T> targetType();
+
+    T map(S source);
+}
@@ -0,0 +1,233 @@
+package com.br.mesusers.shared.reflection.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Gera implementações de {@code GeneratedMapper} para as classes anotadas com
+ * {@code @GenerateMapper}, usando os acessores dos records e os getters/setters
+ * do Lombok nas entidades. Segue as mesmas regras do {@code DTOMapper}:
+ * destinos record recebem todos os componentes pelo nome; destinos classe
+ * recebem os campos declarados na origem que também existem no destino.
+ *
+ * É compilado numa execução separada do maven-compiler-plugin, antes do
+ * restante do código.
+ */
+@SupportedAnnotationTypes(MapperProcessor.GENERATE_MAPPER)
+public class MapperProcessor extends AbstractProcessor {
+
+    static final String GENERATE_MAPPER = "com.br.mesusers.shared.reflection.GenerateMapper";
+    private static final String GENERATED_MAPPER = "com.br.mesusers.shared.reflection.GeneratedMapper";
+
+    private final List<String> generatedMappers = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServiceFile();
+            return false;
+        }
+        for (TypeElement annotation : annotations) {
+            for (TypeElement source : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                for (TypeElement target : targetsOf(source)) {
+                    try {
+                        generate(source, target);
+                    } catch (IOException e) {
+                        error(source, "Falha ao gerar mapeador para " + target.getSimpleName() + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private List<TypeElement> targetsOf(TypeElement source) {
+        List<TypeElement> targets = new ArrayList<>();
+        for (AnnotationMirror mirror : source.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!type.getQualifiedName().contentEquals(GENERATE_MAPPER)) {
+                continue;
+            }
+            mirror.getElementValues().forEach((name, value) -> {
+                if (name.getSimpleName().contentEquals("value")) {
+                    for (Object item : (List<?>) value.getValue()) {
+                        TypeMirror targetType = (TypeMirror) ((AnnotationValue) item).getValue();
+                        targets.add((TypeElement) ((DeclaredType) targetType).asElement());
+                    }
+                }
+            });
+        }
+        return targets;
+    }
+
+    private void generate(TypeElement source, TypeElement target) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(source).getQualifiedName().toString();
+        String mapperName = source.getSimpleName() + "To" + target.getSimpleName() + "Mapper";
+        String sourceName = source.getQualifiedName().toString();
+        String targetName = target.getQualifiedName().toString();
+
+        StringBuilder body = new StringBuilder();
+        boolean valid = target.getKind() == ElementKind.RECORD
+                ? writeRecordBody(source, target, body)
+                : writeClassBody(source, target, body);
+        if (!valid) {
+            return;
+        }
+
+        String qualifiedMapperName = packageName.isEmpty() ? mapperName : packageName + "." + mapperName;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedMapperName, source);
+        try (Writer writer = file.openWriter()) {
+            if (!packageName.isEmpty()) {
+                writer.write("package " + packageName + ";\n\n");
+            }
+            writer.write("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")\n");
+            writer.write("public final class " + mapperName + " implements " + GENERATED_MAPPER
+                    + "<" + sourceName + ", " + targetName + "> {\n\n");
+            writer.write("    @Override\n");
+            writer.write("    public Class<" + sourceName + "> sourceType() {\n");
+            writer.write("        return " + sourceName + ".class;\n");
+            writer.write("    }\n\n");
+            writer.write("    @Override\n");
+            writer.write("    public Class<" + targetName + "> targetType() {\n");
+            writer.write("        return " + targetName + ".class;\n");
+            writer.write("    }\n\n");
+            writer.write("    @Override\n");
+            writer.write("    public " + targetName + " map(" + sourceName + " source) {\n");
+            writer.write(body.toString());
+            writer.write("    }\n");
+            writer.write("}\n");
+        }
+        generatedMappers.add(qualifiedMapperName);
+    }
+
+    private boolean writeRecordBody(TypeElement source, TypeElement target, StringBuilder body) {
+        List<String> arguments = new ArrayList<>();
+        for (RecordComponentElement component : target.getRecordComponents()) {
+            VariableElement sourceField = findField(source, component.getSimpleName().toString());
+            if (sourceField == null) {
+                error(source, "Campo '" + component.getSimpleName() + "' não encontrado para mapear em "
+                        + target.getSimpleName());
+                return false;
+            }
+            if (!isAssignable(source, sourceField, component.asType(), target)) {
+                return false;
+            }
+            arguments.add(accessor(source, sourceField));
+        }
+        body.append("        return new ").append(target.getQualifiedName()).append("(")
+                .append(String.join(", ", arguments)).append(");\n");
+        return true;
+    }
+
+    private boolean writeClassBody(TypeElement source, TypeElement target, StringBuilder body) {
+        body.append("        ").append(target.getQualifiedName()).append(" target = new ")
+                .append(target.getQualifiedName()).append("();\n");
+        for (VariableElement sourceField : ElementFilter.fieldsIn(source.getEnclosedElements())) {
+            if (sourceField.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            VariableElement targetField = findField(target, sourceField.getSimpleName().toString());
+            if (targetField == null) {
+                continue;
+            }
+            if (!isAssignable(source, sourceField, targetField.asType(), target)) {
+                return false;
+            }
+            body.append("        target.set").append(capitalize(targetField.getSimpleName().toString()))
+                    .append("(").append(accessor(source, sourceField)).append(");\n");
+        }
+        body.append("        return target;\n");
+        return true;
+    }
+
+    private boolean isAssignable(TypeElement source, VariableElement sourceField, TypeMirror targetType,
+            TypeElement target) {
+        if (processingEnv.getTypeUtils().isAssignable(sourceField.asType(), targetType)) {
+            return true;
+        }
+        error(source, "Campo '" + sourceField.getSimpleName() + "' (" + sourceField.asType()
+                + ") incompatível com " + target.getSimpleName() + " (" + targetType + ")");
+        return false;
+    }
+
+    private String accessor(TypeElement source, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        if (source.getKind() == ElementKind.RECORD) {
+            return "source." + name + "()";
+        }
+        String prefix = field.asType().getKind() == TypeKind.BOOLEAN ? "is" : "get";
+        return "source." + prefix + capitalize(name) + "()";
+    }
+
+    private VariableElement findField(TypeElement type, String name) {
+        for (TypeElement current = type; current != null; current = superclassOf(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (field.getSimpleName().contentEquals(name) && !field.getModifiers().contains(Modifier.STATIC)) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    private TypeElement superclassOf(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+    }
+
+    private void writeServiceFile() {
+        if (generatedMappers.isEmpty()) {
+            return;
+        }
+        try (Writer writer = processingEnv.getFiler()
+                .createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + GENERATED_MAPPER)
+                .openWriter()) {
+            for (String mapper : generatedMappers) {
+                writer.write(mapper + "\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Falha ao registrar mapeadores gerados: " + e.getMessage());
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+}
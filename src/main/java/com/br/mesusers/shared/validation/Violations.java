@@ -0,0 +1,35 @@
+package com.br.mesusers.shared.validation;
+
+import java.util.Collection;
+import java.util.Comparator;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Escolhe uma única mensagem entre as violações do Bean Validation, sempre a
+ * mesma para a mesma entrada, para os caminhos que respondem um erro por vez.
+ */
+public final class Violations {
+
+    // "Obrigatório" vem antes de tamanho e formato, que também falham num valor vazio
+    private static final Comparator<ConstraintViolation<?>> PRIORITY = Comparator
+            .<ConstraintViolation<?>, Boolean>comparing(
+                    violation -> !(violation.getConstraintDescriptor().getAnnotation() instanceof NotBlank))
+            .thenComparing(violation -> violation.getPropertyPath().toString())
+            .thenComparing(ConstraintViolation::getMessage);
+
+    private Violations() {
+    }
+
+    /**
+     * @return a mensagem da violação mais relevante, ou {@code null} se não há
+     *         nenhuma
+     */
+    public static String first(Collection<? extends ConstraintViolation<?>> violations) {
+        return violations.stream()
+                .min(PRIORITY)
+                .map(ConstraintViolation::getMessage)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,104 @@
+package com.br.mesusers.user;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Remove fisicamente os usuários e endereços excluídos logicamente. Roda no
+ * horário do {@code users.purge.cron} (por padrão às 3h, fora do pico) e
+ * apaga em lotes de {@code users.purge.batch-size} linhas, cada lote na sua
+ * própria transação, até {@code users.purge.max-batches} lotes por tabela; o
+ * que sobrar fica para a próxima execução.
+ *
+ * Endereços saem primeiro: um usuário só é apagado quando não resta nenhum
+ * endereço apontando para ele. O {@code SKIP LOCKED} deixa várias instâncias
+ * rodarem ao mesmo tempo sem disputar as mesmas linhas.
+ */
+@Component
+public class DeletedRowPurger implements MeterBinder {
+
+    static final String PURGE_ADDRESSES = "DELETE FROM addresses WHERE id IN ("
+            + "SELECT id FROM addresses WHERE deleted_at IS NOT NULL LIMIT ? FOR UPDATE SKIP LOCKED)";
+    static final String PURGE_USERS = "DELETE FROM users WHERE id IN ("
+            + "SELECT u.id FROM users u WHERE u.deleted_at IS NOT NULL "
+            + "AND NOT EXISTS (SELECT 1 FROM addresses a WHERE a.user_id = u.id) "
+            + "LIMIT ? FOR UPDATE SKIP LOCKED)";
+    static final String COUNT_ADDRESSES = "SELECT count(*) FROM addresses WHERE deleted_at IS NOT NULL";
+    static final String COUNT_USERS = "SELECT count(*) FROM users WHERE deleted_at IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final int maxBatches;
+
+    private final AtomicLong userBacklog = new AtomicLong();
+    private final AtomicLong addressBacklog = new AtomicLong();
+    private final AtomicLong purgedUsers = new AtomicLong();
+    private final AtomicLong purgedAddresses = new AtomicLong();
+
+    public DeletedRowPurger(JdbcTemplate jdbcTemplate,
+            @Value("${users.purge.batch-size:500}") int batchSize,
+            @Value("${users.purge.max-batches:20}") int maxBatches) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(cron = "${users.purge.cron:0 0 3 * * *}")
+    public void purge() {
+        drain(PURGE_ADDRESSES, purgedAddresses);
+        drain(PURGE_USERS, purgedUsers);
+        refreshBacklog();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshBacklog() {
+        addressBacklog.set(count(COUNT_ADDRESSES));
+        userBacklog.set(count(COUNT_USERS));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.purge.backlog", userBacklog, AtomicLong::get)
+                .description("Linhas excluídas logicamente aguardando o expurgo")
+                .tag("table", "users")
+                .register(registry);
+        Gauge.builder("users.purge.backlog", addressBacklog, AtomicLong::get)
+                .description("Linhas excluídas logicamente aguardando o expurgo")
+                .tag("table", "addresses")
+                .register(registry);
+        FunctionCounter.builder("users.purge.removed", purgedUsers, AtomicLong::get)
+                .description("Linhas removidas fisicamente pelo expurgo")
+                .tag("table", "users")
+                .register(registry);
+        FunctionCounter.builder("users.purge.removed", purgedAddresses, AtomicLong::get)
+                .description("Linhas removidas fisicamente pelo expurgo")
+                .tag("table", "addresses")
+                .register(registry);
+    }
+
+    private void drain(String sql, AtomicLong purged) {
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int removed = jdbcTemplate.update(sql, batchSize);
+            purged.addAndGet(removed);
+            if (removed < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private long count(String sql) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count == null ? 0 : count;
+    }
+}
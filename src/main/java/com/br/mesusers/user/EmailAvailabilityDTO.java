@@ -0,0 +1,6 @@
+package com.br.mesusers.user;
+
+public record EmailAvailabilityDTO(
+        String email,
+        boolean available) {
+}
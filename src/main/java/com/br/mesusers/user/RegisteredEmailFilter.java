@@ -0,0 +1,108 @@
+package com.br.mesusers.user;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.br.mesusers.shared.structures.BloomFilter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Filtro de Bloom com os emails cadastrados, para responder "não existe" sem
+ * ir ao banco. Só a resposta negativa é confiável: {@link #isDefinitelyAbsent}
+ * igual a {@code false} significa "talvez exista" e quem chama deve consultar
+ * o repositório.
+ *
+ * É montado na subida a partir de um stream dos emails e reconstruído
+ * periodicamente, já que o filtro não suporta remoção e emails excluídos ou
+ * trocados só saem numa reconstrução. Até o primeiro build, responde sempre
+ * "talvez exista".
+ */
+@Component
+public class RegisteredEmailFilter implements MeterBinder {
+
+    private static final int MIN_CAPACITY = 10_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final UserRepository userRepository;
+    private final LongAdder shortCircuits = new LongAdder();
+    private volatile BloomFilter filter;
+    private BloomFilter rebuilding;
+
+    public RegisteredEmailFilter(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public boolean isDefinitelyAbsent(String email) {
+        BloomFilter current = filter;
+        if (current == null || email == null) {
+            return false;
+        }
+        if (current.mightContain(normalize(email))) {
+            return false;
+        }
+        shortCircuits.increment();
+        return true;
+    }
+
+    public synchronized void add(String email) {
+        if (email == null) {
+            return;
+        }
+        String normalized = normalize(email);
+        if (filter != null) {
+            filter.put(normalized);
+        }
+        if (rebuilding != null) {
+            rebuilding.put(normalized);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${users.email-filter.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${users.email-filter.rebuild-interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        BloomFilter next = new BloomFilter(
+                (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_CAPACITY, userRepository.count() * 2)),
+                FALSE_POSITIVE_RATE);
+        synchronized (this) {
+            rebuilding = next;
+        }
+        boolean complete = false;
+        try (Stream<String> emails = userRepository.streamAllEmails()) {
+            emails.forEach(email -> next.put(normalize(email)));
+            complete = true;
+        } finally {
+            synchronized (this) {
+                // Um filtro incompleto daria falso negativo: nesse caso fica o anterior
+                if (rebuilding == next) {
+                    if (complete) {
+                        filter = next;
+                    }
+                    rebuilding = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("users.email.filter.short-circuits", shortCircuits, LongAdder::sum)
+                .description("Consultas por email respondidas pelo filtro sem ir ao banco")
+                .register(registry);
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
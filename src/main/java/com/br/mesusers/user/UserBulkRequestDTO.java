@@ -0,0 +1,10 @@
+package com.br.mesusers.user;
+
+import java.util.List;
+
+/**
+ * Corpo das operações em massa de administrador. {@code admin} só é usado na
+ * promoção/rebaixamento.
+ */
+public record UserBulkRequestDTO(List<Long> ids, Boolean admin) {
+}
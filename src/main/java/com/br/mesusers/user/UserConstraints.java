@@ -0,0 +1,38 @@
+package com.br.mesusers.user;
+
+import com.br.mesusers.shared.validation.Violations;
+
+import jakarta.validation.Validator;
+
+/**
+ * Aplica as anotações do {@link UserRequestDTO} campo a campo, para quem
+ * recebe os dados do usuário fora do corpo validado pelo Spring (patch, lote
+ * e importação). O {@code admin} fica de fora: nesses caminhos ele é opcional.
+ */
+final class UserConstraints {
+
+    private UserConstraints() {
+    }
+
+    /**
+     * @return a mensagem da regra violada, ou {@code null} se o valor é válido
+     */
+    static String violation(Validator validator, String property, Object value) {
+        return Violations.first(validator.validateValue(UserRequestDTO.class, property, value));
+    }
+
+    /**
+     * @return a primeira regra violada por username, email ou senha, ou
+     *         {@code null} se os três são válidos
+     */
+    static String violation(Validator validator, UserRequestDTO user) {
+        String error = violation(validator, "username", user.username());
+        if (error == null) {
+            error = violation(validator, "email", user.email());
+        }
+        if (error == null) {
+            error = violation(validator, "password", user.password());
+        }
+        return error;
+    }
+}
@@ -1,24 +1,48 @@
 package com.br.mesusers.user;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Objects;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-import com.br.mesusers.auth.AuthService;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.br.mesusers.auth.AuthenticatedUser;
+import com.br.mesusers.shared.export.ExportFormat;
+import com.br.mesusers.shared.http.ETags;
+import com.br.mesusers.shared.http.MergePatch;
+import com.br.mesusers.shared.http.PreconditionFailedException;
+import com.br.mesusers.shared.pagination.CountMode;
+import com.br.mesusers.shared.pagination.InvalidCursorException;
+import com.br.mesusers.shared.records.BulkOperationResult;
+import com.br.mesusers.shared.records.CursorPaginatedResponse;
 import com.br.mesusers.shared.records.PaginatedResponse;
 import com.br.mesusers.shared.records.ResponseRecord;
-
-import jakarta.security.auth.message.AuthException;
+import com.fasterxml.jackson.databind.JsonNode;
 
 @RestController
 @RequestMapping("api/users")
 public class UserController {
 
+    private static final int MAX_CURSOR_LIMIT = 100;
+    private static final int MAX_BATCH_SIZE = 1_000;
+
     @Autowired
     private UserService userService;
 
     @Autowired
-    private AuthService authService;
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserExportService userExportService;
 
     @PostMapping
     public ResponseEntity<ResponseRecord<UserResponseDTO>> create(@RequestBody UserRequestDTO userRecord) {
@@ -27,49 +51,248 @@ public class UserController {
                 : ResponseEntity.badRequest().body(ResponseRecord.error(400, "User creation failed"));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<ResponseRecord<List<UserResponseDTO>>> createAll(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestBody List<UserRequestDTO> users) {
+        if (!currentUser.admin()) {
+            return ResponseEntity.status(403).body(ResponseRecord.error(403, "Forbidden"));
+        }
+        if (users.isEmpty() || users.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(ResponseRecord.error(400, "O lote deve ter entre 1 e " + MAX_BATCH_SIZE + " usuários"));
+        }
+        try {
+            return ResponseEntity.ok(ResponseRecord.success("Users created successfully", userService.saveAll(users)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ResponseRecord.error(400, e.getMessage()));
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(409).body(ResponseRecord.error(409, "Conflict"));
+        }
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<ResponseRecord<BulkOperationResult>> deleteAll(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestBody UserBulkRequestDTO request) {
+        ResponseEntity<ResponseRecord<BulkOperationResult>> rejected = rejectBulk(currentUser, request);
+        if (rejected != null) {
+            return rejected;
+        }
+        List<Long> ids = request.ids().stream().distinct().toList();
+        return ResponseEntity.ok(ResponseRecord.success("Users deleted successfully",
+                new BulkOperationResult(ids.size(), userService.deleteAll(ids))));
+    }
+
+    @PostMapping("/bulk/admin")
+    public ResponseEntity<ResponseRecord<BulkOperationResult>> updateAdmin(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestBody UserBulkRequestDTO request) {
+        ResponseEntity<ResponseRecord<BulkOperationResult>> rejected = rejectBulk(currentUser, request);
+        if (rejected != null) {
+            return rejected;
+        }
+        if (request.admin() == null) {
+            return ResponseEntity.badRequest().body(ResponseRecord.error(400, "O campo admin é obrigatório"));
+        }
+        if (!request.admin() && request.ids().contains(currentUser.id())) {
+            return ResponseEntity.badRequest()
+                    .body(ResponseRecord.error(400, "Não é possível remover o próprio acesso de administrador"));
+        }
+        List<Long> ids = request.ids().stream().distinct().toList();
+        return ResponseEntity.ok(ResponseRecord.success("Users updated successfully",
+                new BulkOperationResult(ids.size(), userService.updateAdmin(ids, request.admin()))));
+    }
+
+    @PostMapping(value = "/import", consumes = { UserImportService.NDJSON, UserImportService.CSV })
+    public ResponseEntity<ResponseRecord<UserImportResult>> importUsers(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        if (!currentUser.admin()) {
+            return ResponseEntity.status(403).body(ResponseRecord.error(403, "Forbidden"));
+        }
+        UserImportResult result = userImportService.importUsers(body, contentType);
+        return ResponseEntity.ok(ResponseRecord.success("Import completed", result));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestParam(name = "format", required = false) String format) {
+        if (!currentUser.admin()) {
+            return ResponseEntity.status(403).build();
+        }
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        StreamingResponseBody body = out -> userExportService.export(out, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"users." + exportFormat.extension() + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/email-availability")
+    public ResponseEntity<ResponseRecord<EmailAvailabilityDTO>> emailAvailability(
+            @RequestParam("email") String email) {
+        boolean available = userService.isEmailAvailable(email);
+        return ResponseEntity.ok(ResponseRecord.success(new EmailAvailabilityDTO(email, available)));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ResponseRecord<UserResponseDTO>> getById(@PathVariable Long id) {
+    public ResponseEntity<ResponseRecord<UserResponseDTO>> getById(
+            @PathVariable Long id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Versão antes do corpo: o ETag nunca fica à frente do conteúdo entregue
+        String versionTag = userService.findVersionTag(id);
+        if (ETags.noneMatchFails(ifNoneMatch, versionTag)) {
+            return ResponseEntity.status(304).eTag(ETags.of(versionTag)).build();
+        }
         UserResponseDTO user = userService.findById(id);
-        return ResponseEntity.ok(ResponseRecord.success(user));
+        return withETag(ResponseEntity.ok(), versionTag).body(ResponseRecord.success(user));
     }
 
     @GetMapping
     public ResponseEntity<ResponseRecord<PaginatedResponse<UserResponseDTO>>> getAll(
             @RequestHeader("Authorization") String token,
             @RequestParam(name = "page", defaultValue = "1") int page,
-            @RequestParam(name = "pageSize", defaultValue = "10") int pageSize) {
+            @RequestParam(name = "pageSize", defaultValue = "10") int pageSize,
+            @RequestParam(name = "count", required = false) String count) {
+        CountMode countMode = CountMode.parse(count);
+        if (countMode != CountMode.EXACT) {
+            return ResponseEntity.ok(ResponseRecord.success(userService.findSlice(page, pageSize, countMode)));
+        }
         Page<UserResponseDTO> pageResult = userService.findAll(page, pageSize);
         PaginatedResponse<UserResponseDTO> response = new PaginatedResponse<>(
                 pageResult.getContent(),
                 page,
-                (int) pageResult.getTotalElements(),
+                pageResult.getTotalElements(),
                 pageSize,
                 pageResult.getTotalPages());
 
         return ResponseEntity.ok(ResponseRecord.success(response));
     }
 
+    @GetMapping(params = "after")
+    public ResponseEntity<ResponseRecord<CursorPaginatedResponse<UserResponseDTO>>> getAllAfter(
+            @RequestParam(name = "after") String after,
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_CURSOR_LIMIT) {
+            return ResponseEntity.badRequest()
+                    .body(ResponseRecord.error(400, "limit deve estar entre 1 e " + MAX_CURSOR_LIMIT));
+        }
+        try {
+            return ResponseEntity.ok(ResponseRecord.success(userService.findAfter(after, limit)));
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().body(ResponseRecord.error(400, e.getMessage()));
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ResponseRecord<CursorPaginatedResponse<UserResponseDTO>>> search(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestParam(name = "field") String field,
+            @RequestParam(name = "value") String value,
+            @RequestParam(name = "mode", required = false) String mode,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        if (!currentUser.admin()) {
+            return ResponseEntity.status(403).body(ResponseRecord.error(403, "Forbidden"));
+        }
+        if (limit < 1 || limit > MAX_CURSOR_LIMIT) {
+            return ResponseEntity.badRequest()
+                    .body(ResponseRecord.error(400, "limit deve estar entre 1 e " + MAX_CURSOR_LIMIT));
+        }
+        try {
+            return ResponseEntity.ok(ResponseRecord.success(userService.search(
+                    UserSearchField.parse(field), UserSearchMode.parse(mode), value, after, limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ResponseRecord.error(400, e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ResponseRecord<UserResponseDTO>> update(
             @PathVariable("id") Long id,
-            @RequestHeader("Authorization") String token,
-            @RequestBody UserRequestDTO user) throws AuthException {
-        UserEntity userEntity = authService.getCurrentUser(token);
-        if (!userEntity.getId().equals(id) && !userEntity.getAdmin()) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestBody UserRequestDTO user,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (!id.equals(currentUser.id()) && !currentUser.admin()) {
+            return ResponseEntity.status(403).body(ResponseRecord.error(403, "Forbidden"));
+        }
+        UserResponseDTO updatedUser;
+        try {
+            updatedUser = userService.update(id, user, ifMatch);
+        } catch (PreconditionFailedException | ObjectOptimisticLockingFailureException e) {
+            return preconditionFailed();
+        }
+        String versionTag = updatedUser != null ? userService.findVersionTag(id) : null;
+        return withETag(ResponseEntity.ok(), versionTag)
+                .body(ResponseRecord.success("User updated successfully", updatedUser));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = { MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<ResponseRecord<UserResponseDTO>> patch(
+            @PathVariable("id") Long id,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestBody JsonNode patch,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if ((!id.equals(currentUser.id()) || patch.has("admin")) && !currentUser.admin()) {
             return ResponseEntity.status(403).body(ResponseRecord.error(403, "Forbidden"));
         }
-        UserResponseDTO updatedUser = userService.update(id, user);
-        return ResponseEntity.ok(ResponseRecord.success("User updated successfully", updatedUser));
+        UserResponseDTO patchedUser;
+        try {
+            patchedUser = userService.patch(id, patch, ifMatch);
+        } catch (PreconditionFailedException | ObjectOptimisticLockingFailureException e) {
+            return preconditionFailed();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ResponseRecord.error(400, e.getMessage()));
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(409).body(ResponseRecord.error(409, "Conflict"));
+        }
+        if (patchedUser == null) {
+            return ResponseEntity.status(404).body(ResponseRecord.error(404, "User not found"));
+        }
+        return withETag(ResponseEntity.ok(), userService.findVersionTag(id))
+                .body(ResponseRecord.success("User updated successfully", patchedUser));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<ResponseRecord<UserResponseDTO>> delete(@RequestHeader("Authorization") String token,
-            @PathVariable("id") Long id) throws AuthException {
-        UserEntity userEntity = authService.getCurrentUser(token);
-        if (!userEntity.getId().equals(id) && !userEntity.getAdmin()) {
+    public ResponseEntity<ResponseRecord<UserResponseDTO>> delete(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @PathVariable("id") Long id,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (!id.equals(currentUser.id()) && !currentUser.admin()) {
             return ResponseEntity.status(403).body(ResponseRecord.error(403, "Forbidden"));
         }
-        UserResponseDTO deletedUser = userService.delete(id);
+        UserResponseDTO deletedUser;
+        try {
+            deletedUser = userService.delete(id, ifMatch);
+        } catch (PreconditionFailedException | ObjectOptimisticLockingFailureException e) {
+            return preconditionFailed();
+        }
         return ResponseEntity.ok(ResponseRecord.success("User deleted successfully", deletedUser));
     }
-}
\ No newline at end of file
+
+    // If-Match que não confere, ou versão alterada por outra requisição antes do UPDATE
+    private static <T> ResponseEntity<ResponseRecord<T>> preconditionFailed() {
+        return ResponseEntity.status(412).body(ResponseRecord.error(412, "Precondition Failed"));
+    }
+
+    private static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, String versionTag) {
+        return versionTag != null ? builder.eTag(ETags.of(versionTag)) : builder;
+    }
+
+    private static <T> ResponseEntity<ResponseRecord<T>> rejectBulk(AuthenticatedUser currentUser,
+            UserBulkRequestDTO request) {
+        if (!currentUser.admin()) {
+            return ResponseEntity.status(403).body(ResponseRecord.error(403, "Forbidden"));
+        }
+        if (request.ids() == null || request.ids().isEmpty() || request.ids().size() > MAX_BATCH_SIZE
+                || request.ids().stream().anyMatch(Objects::isNull)) {
+            return ResponseEntity.badRequest()
+                    .body(ResponseRecord.error(400, "ids deve ter entre 1 e " + MAX_BATCH_SIZE + " valores"));
+        }
+        return null;
+    }
+}
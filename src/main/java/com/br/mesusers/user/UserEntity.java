@@ -1,12 +1,17 @@
 package com.br.mesusers.user;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLRestriction;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import com.br.mesusers.address.AddressEntity;
+import com.br.mesusers.shared.reflection.GenerateMapper;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
@@ -18,21 +23,36 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@DynamicUpdate
+@SQLRestriction("deleted_at IS NULL")
 @Table(name = "users")
 @Getter
 @Setter
 @NoArgsConstructor
+@GenerateMapper(UserResponseDTO.class)
 public class UserEntity {
+    // Sequência com alocação em blocos: o id sai sem ir ao banco e os INSERTs podem ir em batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
+    // Base do ETag e do If-Match; o default preenche as linhas que já existiam
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
+    // Exclusão lógica: a linha some das consultas JPA e é removida depois pelo DeletedRowPurger
+    private Instant deletedAt;
+
     @Column(nullable = false, unique = true)
     private String username;
 
@@ -0,0 +1,38 @@
+package com.br.mesusers.user;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.br.mesusers.shared.export.ExportFormat;
+import com.br.mesusers.shared.export.RecordExportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Exporta todos os usuários direto do cursor do banco para a resposta. As
+ * linhas chegam como projeções, fora do contexto de persistência, então a
+ * memória não cresce com o número de linhas.
+ */
+@Service
+public class UserExportService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void export(OutputStream out, ExportFormat format) throws IOException {
+        RecordExportWriter<UserResponseDTO> writer = new RecordExportWriter<>(UserResponseDTO.class, format, out,
+                objectMapper);
+        try (Stream<UserResponseDTO> users = userRepository.streamAllResponses()) {
+            users.forEach(writer::write);
+        }
+        writer.finish();
+    }
+}
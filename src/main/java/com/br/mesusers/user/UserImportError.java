@@ -0,0 +1,7 @@
+package com.br.mesusers.user;
+
+public record UserImportError(
+        long line,
+        String email,
+        String message) {
+}
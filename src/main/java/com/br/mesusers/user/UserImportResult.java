@@ -0,0 +1,11 @@
+package com.br.mesusers.user;
+
+import java.util.List;
+
+public record UserImportResult(
+        long processed,
+        long imported,
+        long failed,
+        List<UserImportError> errors,
+        boolean errorsTruncated) {
+}
@@ -0,0 +1,253 @@
+package com.br.mesusers.user;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.br.mesusers.security.PasswordHashingService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validator;
+
+/**
+ * Importação de usuários em massa a partir de NDJSON (um objeto por linha) ou
+ * CSV com cabeçalho {@code username,email,password[,admin]}.
+ *
+ * O corpo é lido linha a linha e processado em lotes de {@link #CHUNK_SIZE}:
+ * cada lote tem as senhas geradas em paralelo pelo
+ * {@link PasswordHashingService} e é gravado num único batch JDBC, dentro de
+ * uma transação: se o batch falhar nada fica gravado, e a nova tentativa linha
+ * a linha distingue com segurança o que foi inserido do que já existia. Linhas
+ * inválidas ou com email/username já cadastrados viram erros no relatório,
+ * limitado a {@link #MAX_REPORTED_ERRORS} entradas; o restante do arquivo
+ * segue normalmente.
+ *
+ * Os ids saem da {@code users_seq} em blocos de {@link #ID_BLOCK_SIZE}, do
+ * mesmo jeito que o otimizador pooled do Hibernate: cada {@code nextval} é o
+ * topo de um bloco. Linhas ignoradas pelo {@code ON CONFLICT} deixam o id
+ * reservado sem uso.
+ */
+@Service
+public class UserImportService {
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1_000;
+    // Mesmo allocationSize da UserEntity: o valor da sequência é o maior id do bloco
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final String RESERVE_IDS_SQL = "SELECT nextval('users_seq') FROM generate_series(1, ?)";
+    // ON CONFLICT: email ou username repetido vira contagem 0 no batch, não exceção
+    private static final String INSERT_SQL = "INSERT INTO users (id, username, email, password, admin) "
+            + "VALUES (?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private RegisteredEmailFilter registeredEmailFilter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public UserImportResult importUsers(InputStream body, String contentType) throws IOException {
+        boolean csv = contentType != null && contentType.startsWith(CSV);
+        ImportProgress progress = new ImportProgress();
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        Map<String, Integer> columns = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (csv && columns == null) {
+                columns = parseHeader(line);
+                if (!columns.containsKey("username") || !columns.containsKey("email")
+                        || !columns.containsKey("password")) {
+                    progress.fail(lineNumber, null, "Cabeçalho CSV deve conter username, email e password");
+                    break;
+                }
+                continue;
+            }
+            progress.processed++;
+            UserRequestDTO user;
+            try {
+                user = csv ? parseCsvRow(line, columns) : objectMapper.readValue(line, UserRequestDTO.class);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                progress.fail(lineNumber, null, "Linha malformada");
+                continue;
+            }
+            String error = UserConstraints.violation(validator, user);
+            if (error != null) {
+                progress.fail(lineNumber, user.email(), error);
+                continue;
+            }
+            chunk.add(new ImportRow(lineNumber, user));
+            if (chunk.size() == CHUNK_SIZE) {
+                insertChunk(chunk, progress);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, progress);
+        }
+        return progress.result();
+    }
+
+    private void insertChunk(List<ImportRow> chunk, ImportProgress progress) {
+        List<String> hashes = passwordHashingService.encodeAll(
+                chunk.stream().map(row -> row.user().password()).toList());
+        List<Long> ids = reserveIds(chunk.size());
+        List<Object[]> batch = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            UserRequestDTO user = chunk.get(i).user();
+            batch.add(new Object[] { ids.get(i), user.username(), user.email(), hashes.get(i),
+                    Boolean.TRUE.equals(user.admin()) });
+        }
+
+        int[] counts;
+        try {
+            counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch));
+        } catch (DataAccessException e) {
+            // Um erro derruba o batch inteiro (com rollback): refaz linha a linha para isolar a culpada,
+            // reaproveitando os mesmos ids
+            counts = new int[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    counts[i] = jdbcTemplate.update(INSERT_SQL, batch.get(i));
+                } catch (DataAccessException rowError) {
+                    counts[i] = -1;
+                }
+            }
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            ImportRow row = chunk.get(i);
+            if (counts[i] == 0) {
+                progress.fail(row.line(), row.user().email(), "Email ou nome de usuário já cadastrado");
+            } else if (counts[i] == -1) {
+                progress.fail(row.line(), row.user().email(), "Falha ao gravar usuário");
+            } else {
+                progress.imported++;
+                registeredEmailFilter.add(row.user().email());
+            }
+        }
+    }
+
+    private List<Long> reserveIds(int count) {
+        int blocks = (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        List<Long> ids = new ArrayList<>(blocks * ID_BLOCK_SIZE);
+        for (Long hi : jdbcTemplate.queryForList(RESERVE_IDS_SQL, Long.class, blocks)) {
+            // Como no pooled, um primeiro valor abaixo do bloco não reserva ids negativos
+            for (long id = Math.max(1, hi - ID_BLOCK_SIZE + 1); id <= hi; id++) {
+                ids.add(id);
+            }
+        }
+        if (ids.size() < count) {
+            ids.addAll(reserveIds(count - ids.size()));
+        }
+        return ids;
+    }
+
+    private static Map<String, Integer> parseHeader(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(), i);
+        }
+        return columns;
+    }
+
+    private static UserRequestDTO parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> values = splitCsv(line);
+        if (values.size() != columns.size()) {
+            throw new IllegalArgumentException("Quantidade de colunas diferente do cabeçalho");
+        }
+        Integer adminColumn = columns.get("admin");
+        return new UserRequestDTO(
+                values.get(columns.get("username")),
+                values.get(columns.get("email")),
+                values.get(columns.get("password")),
+                adminColumn != null && Boolean.parseBoolean(values.get(adminColumn).trim()));
+    }
+
+    // CSV simples (RFC 4180) de uma linha: campos entre aspas podem conter vírgulas e "" escapado
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Aspas não fechadas");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private record ImportRow(long line, UserRequestDTO user) {
+    }
+
+    private static final class ImportProgress {
+        private long processed;
+        private long imported;
+        private long failed;
+        private final List<UserImportError> errors = new ArrayList<>();
+
+        void fail(long line, String email, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new UserImportError(line, email, message));
+            }
+        }
+
+        UserImportResult result() {
+            return new UserImportResult(processed, imported, failed, errors, failed > errors.size());
+        }
+    }
+}
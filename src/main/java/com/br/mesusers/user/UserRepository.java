@@ -1,8 +1,87 @@
 package com.br.mesusers.user;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface UserRepository extends JpaRepository<UserEntity, Long> {
+public interface UserRepository extends JpaRepository<UserEntity, Long>, UserSearchRepository {
     Optional<UserEntity> findByEmail(String email);
+
+    // Consultas de email são nativas para enxergar também os excluídos ainda não expurgados,
+    // que continuam ocupando o índice único
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM users WHERE email = :email)", nativeQuery = true)
+    boolean existsByEmail(@Param("email") String email);
+
+    @Query(value = "SELECT email FROM users WHERE email IN (:emails)", nativeQuery = true)
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query(value = "SELECT username FROM users WHERE username IN (:usernames)", nativeQuery = true)
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    // Projeções de leitura: só as colunas da resposta, sem a senha e sem entidades gerenciadas
+    String RESPONSE_PROJECTION = "select new com.br.mesusers.user.UserResponseDTO(u.id, u.username, u.email, u.admin) "
+            + "from UserEntity u";
+
+    @Query(RESPONSE_PROJECTION + " where u.id = :id")
+    Optional<UserResponseDTO> findResponseById(@Param("id") Long id);
+
+    @Query(value = RESPONSE_PROJECTION, countQuery = "select count(u) from UserEntity u")
+    Page<UserResponseDTO> findAllResponses(Pageable pageable);
+
+    // Página sem COUNT(*): busca pageSize + 1 linhas só para saber se há próxima
+    @Query(RESPONSE_PROJECTION)
+    Slice<UserResponseDTO> findResponseSlice(Pageable pageable);
+
+    @Query(RESPONSE_PROJECTION + " where u.id > :id order by u.id")
+    List<UserResponseDTO> findResponsesAfter(@Param("id") Long id, Limit limit);
+
+    // Só a versão, para responder If-None-Match sem montar o corpo
+    @Query("select cast(u.version as String) from UserEntity u where u.id = :id")
+    Optional<String> findVersionTagById(@Param("id") Long id);
+
+    // Exclusão lógica em massa: um UPDATE só; a remoção física fica com o DeletedRowPurger
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE users SET deleted_at = now(), version = version + 1 "
+            + "WHERE id IN (:ids) AND deleted_at IS NULL", nativeQuery = true)
+    int softDeleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Só exclui a versão lida antes; 0 linhas quer dizer que outra requisição alterou o usuário
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE users SET deleted_at = now(), version = version + 1 "
+            + "WHERE id = :id AND version = :version AND deleted_at IS NULL", nativeQuery = true)
+    int softDeleteByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    // Incrementa a versão à mão: UPDATE em JPQL não passa pelo @Version e o ETag ficaria velho
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserEntity u set u.admin = :admin, u.version = u.version + 1 "
+            + "where u.id in :ids and u.admin <> :admin")
+    int updateAdminByIdIn(@Param("ids") Collection<Long> ids, @Param("admin") boolean admin);
+
+    // Estimativa das estatísticas do Postgres; -1 enquanto a tabela nunca passou por ANALYZE
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST('users' AS regclass)", nativeQuery = true)
+    Long estimateCount();
+
+    // Precisa de transação aberta; o fetch size evita carregar tudo de uma vez no driver
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query(value = "SELECT email FROM users", nativeQuery = true)
+    Stream<String> streamAllEmails();
+
+    // Exportação em streaming; projeções não entram no contexto de persistência
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query(RESPONSE_PROJECTION + " order by u.id")
+    Stream<UserResponseDTO> streamAllResponses();
 }
\ No newline at end of file
@@ -1,20 +1,29 @@
 package com.br.mesusers.user;
 
+import com.br.mesusers.shared.reflection.GenerateMapper;
+
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
+@GenerateMapper(UserEntity.class)
 public record UserRequestDTO(
         Long id,
-        @NotBlank(message = "O nome de usuário é obrigatório") @Size(min = 3, max = 50, message = "O nome de usuário deve ter entre 3 e 50 caracteres") @Pattern(regexp = "^[a-zA-Z0-9_]+$", message = "O nome de usuário só pode conter letras, números e underscores") String username,
+        @NotBlank(message = "O nome de usuário é obrigatório") @Size(min = 3, max = 50, message = "O nome de usuário deve ter entre 3 e 50 caracteres") @Pattern(regexp = UserRequestDTO.USERNAME_REGEX, message = UserRequestDTO.USERNAME_PATTERN_MESSAGE) String username,
 
         @NotBlank(message = "O email é obrigatório") @Email(message = "O email deve ser válido") @Size(max = 100, message = "O email deve ter no máximo 100 caracteres") String email,
 
-        @NotBlank(message = "A senha é obrigatória") @Size(min = 8, max = 100, message = "A senha deve ter entre 8 e 100 caracteres") @Pattern(regexp = "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=!])(?=\\S+$).{8,}$", message = "A senha deve conter pelo menos 1 letra maiúscula, 1 letra minúscula, 1 número e 1 caractere especial") String password,
+        @NotBlank(message = "A senha é obrigatória") @Size(min = 8, max = 100, message = "A senha deve ter entre 8 e 100 caracteres") @Pattern(regexp = UserRequestDTO.PASSWORD_REGEX, message = UserRequestDTO.PASSWORD_PATTERN_MESSAGE) String password,
 
         @NotNull(message = "O campo admin é obrigatório") Boolean admin) {
+
+    public static final String USERNAME_REGEX = "^[a-zA-Z0-9_]+$";
+    public static final String USERNAME_PATTERN_MESSAGE = "O nome de usuário só pode conter letras, números e underscores";
+    public static final String PASSWORD_REGEX = "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=!])(?=\\S+$).{8,}$";
+    public static final String PASSWORD_PATTERN_MESSAGE = "A senha deve conter pelo menos 1 letra maiúscula, 1 letra minúscula, 1 número e 1 caractere especial";
+
     public UserRequestDTO {
         if (username != null) {
             username = username.trim();
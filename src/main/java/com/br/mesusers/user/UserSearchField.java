@@ -0,0 +1,36 @@
+package com.br.mesusers.user;
+
+/**
+ * Campos liberados para busca. O nome da coluna entra direto no JPQL, por
+ * isso só valores deste enum chegam à consulta.
+ */
+public enum UserSearchField {
+    USERNAME("username"),
+    EMAIL("email");
+
+    private final String attribute;
+
+    UserSearchField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    /** Valor do campo num resultado, para montar o cursor da próxima página. */
+    public String valueOf(UserResponseDTO user) {
+        return this == USERNAME ? user.username() : user.email();
+    }
+
+    public static UserSearchField parse(String value) {
+        if (value != null) {
+            for (UserSearchField field : values()) {
+                if (field.attribute.equalsIgnoreCase(value.trim())) {
+                    return field;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Campo de busca inválido: " + value);
+    }
+}
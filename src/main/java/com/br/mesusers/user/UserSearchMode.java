@@ -0,0 +1,26 @@
+package com.br.mesusers.user;
+
+public enum UserSearchMode {
+    /** Igualdade exata, atendida pelo índice único da coluna. */
+    EXACT,
+    /** Igualdade sobre {@code lower(coluna)}. */
+    IGNORE_CASE,
+    /** Começa com, sem diferenciar maiúsculas; usa o índice {@code text_pattern_ops}. */
+    PREFIX;
+
+    /**
+     * Valor ausente cai em {@link #EXACT}.
+     */
+    public static UserSearchMode parse(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        String normalized = value.trim().replace('-', '_');
+        for (UserSearchMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(normalized)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Modo de busca inválido: " + value);
+    }
+}
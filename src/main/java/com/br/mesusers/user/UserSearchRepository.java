@@ -0,0 +1,15 @@
+package com.br.mesusers.user;
+
+import java.util.List;
+
+import com.br.mesusers.shared.pagination.KeysetCursor;
+
+public interface UserSearchRepository {
+
+    /**
+     * Busca por um campo liberado, em ordem de {@code lower(campo)} e id, a
+     * partir da última posição já entregue ({@code null} no início).
+     */
+    List<UserResponseDTO> search(UserSearchField field, UserSearchMode mode, String value, KeysetCursor after,
+            int limit);
+}
@@ -0,0 +1,71 @@
+package com.br.mesusers.user;
+
+import java.util.List;
+import java.util.Locale;
+
+import com.br.mesusers.shared.pagination.KeysetCursor;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+/**
+ * Fragmento do {@link UserRepository} que monta a consulta de busca. Cada
+ * predicado é escrito no formato exato da expressão indexada pelo
+ * {@code SchemaInitializer} ({@code lower(coluna)} com {@code text_pattern_ops}),
+ * para o Postgres usar o índice em vez de varrer a tabela.
+ *
+ * A ordenação também segue o índice: {@code lower(coluna)} com o operador da
+ * classe {@code text_pattern_ops} ({@code USING ~<~}) e o id como desempate.
+ * Ordenar só por id com LIMIT deixaria o planejador percorrer a chave
+ * primária filtrando linha a linha, caro justamente nos prefixos raros. Por
+ * isso a consulta é nativa: o JPQL não expressa esses operadores.
+ */
+class UserSearchRepositoryImpl implements UserSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserResponseDTO> search(UserSearchField field, UserSearchMode mode, String value, KeysetCursor after,
+            int limit) {
+        String column = "u." + field.attribute();
+        String key = "lower(" + column + ")";
+        String predicate = switch (mode) {
+            case EXACT -> column + " = :value";
+            case IGNORE_CASE -> key + " = :value";
+            case PREFIX -> key + " like :value escape '\\'";
+        };
+        String parameter = switch (mode) {
+            case EXACT -> value;
+            case IGNORE_CASE -> value.toLowerCase(Locale.ROOT);
+            case PREFIX -> escapeLike(value.toLowerCase(Locale.ROOT)) + "%";
+        };
+        StringBuilder sql = new StringBuilder("SELECT u.id, u.username, u.email, u.admin FROM users u ")
+                .append("WHERE u.deleted_at IS NULL AND ").append(predicate);
+        if (after != null) {
+            // O cursor guarda o valor original e o lower() é do próprio Postgres, igual ao do índice.
+            // A primeira condição é a que vira limite do index scan; a segunda só desempata pelo id.
+            sql.append(" AND ").append(key).append(" ~>=~ lower(:afterValue)")
+                    .append(" AND (").append(key).append(" ~>~ lower(:afterValue) OR u.id > :afterId)");
+        }
+        sql.append(" ORDER BY ").append(key).append(" USING ~<~, u.id LIMIT :limit");
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setParameter("value", parameter)
+                .setParameter("limit", limit);
+        if (after != null) {
+            query.setParameter("afterValue", after.value()).setParameter("afterId", after.id());
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        return rows.stream()
+                .map(row -> new UserResponseDTO(((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                        (Boolean) row[3]))
+                .toList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,42 +1,159 @@
 package com.br.mesusers.user;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.br.mesusers.address.AddressRepository;
+import com.br.mesusers.security.PasswordHashingService;
+import com.br.mesusers.shared.http.ETags;
+import com.br.mesusers.shared.http.MergePatch;
+import com.br.mesusers.shared.http.PreconditionFailedException;
+import com.br.mesusers.shared.pagination.CachedCount;
+import com.br.mesusers.shared.pagination.CountMode;
+import com.br.mesusers.shared.pagination.Cursors;
+import com.br.mesusers.shared.pagination.KeysetCursor;
+import com.br.mesusers.shared.records.CursorPaginatedResponse;
+import com.br.mesusers.shared.records.PaginatedResponse;
 import com.br.mesusers.shared.reflection.DTOMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import jakarta.validation.Validator;
 
 @Service
 public class UserService {
 
+    private static final long ESTIMATED_COUNT_TTL_MS = 5_000;
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("username", "email", "password", "admin");
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private UserSnapshotCache userSnapshotCache;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private RegisteredEmailFilter registeredEmailFilter;
+
+    private final CachedCount estimatedUserCount = new CachedCount(this::estimateUserCount, ESTIMATED_COUNT_TTL_MS);
+
     private String encryptPassword(String rawPassword) {
-        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
         return passwordEncoder.encode(rawPassword);
     }
 
     public UserResponseDTO save(UserRequestDTO userDTO) {
+        if (!isEmailAvailable(userDTO.email())) {
+            return null;
+        }
         String encryptedPassword = encryptPassword(userDTO.password());
         userDTO = new UserRequestDTO(null, userDTO.username(), userDTO.email(), encryptedPassword, false);
         UserEntity user = DTOMapper.transform(userDTO, UserEntity.class);
         user = userRepository.save(user);
+        registeredEmailFilter.add(user.getEmail());
         return DTOMapper.transform(user, UserResponseDTO.class);
     }
 
+    /**
+     * Cria vários usuários. Cada um é validado com as regras do
+     * {@link UserRequestDTO}; um inválido recusa o lote inteiro. Emails e nomes
+     * de usuário já cadastrados ou repetidos no lote são ignorados, como em
+     * {@link #save}, com uma consulta para cada campo.
+     *
+     * As senhas são geradas antes de qualquer transação: só os INSERTs, em
+     * batch, rodam na transação curta do {@code saveAll} do repositório.
+     *
+     * @throws IllegalArgumentException se algum usuário for inválido
+     */
+    public List<UserResponseDTO> saveAll(List<UserRequestDTO> users) {
+        Map<String, UserRequestDTO> byEmail = new LinkedHashMap<>();
+        Set<String> usernames = new HashSet<>();
+        for (int i = 0; i < users.size(); i++) {
+            UserRequestDTO user = users.get(i);
+            String error = UserConstraints.violation(validator, user);
+            if (error != null) {
+                throw new IllegalArgumentException("Usuário " + (i + 1) + ": " + error);
+            }
+            if (!byEmail.containsKey(user.email()) && usernames.add(user.username())) {
+                byEmail.put(user.email(), user);
+            }
+        }
+        List<String> maybeTaken = byEmail.keySet().stream()
+                .filter(email -> !registeredEmailFilter.isDefinitelyAbsent(email))
+                .toList();
+        if (!maybeTaken.isEmpty()) {
+            byEmail.keySet().removeAll(userRepository.findExistingEmails(maybeTaken));
+        }
+        if (!byEmail.isEmpty()) {
+            Set<String> takenUsernames = userRepository.findExistingUsernames(
+                    byEmail.values().stream().map(UserRequestDTO::username).toList());
+            byEmail.values().removeIf(user -> takenUsernames.contains(user.username()));
+        }
+        if (byEmail.isEmpty()) {
+            return List.of();
+        }
+
+        List<UserRequestDTO> accepted = new ArrayList<>(byEmail.values());
+        List<String> hashes = passwordHashingService.encodeAll(
+                accepted.stream().map(UserRequestDTO::password).toList());
+        List<UserEntity> entities = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            UserRequestDTO user = accepted.get(i);
+            entities.add(DTOMapper.transform(
+                    new UserRequestDTO(null, user.username(), user.email(), hashes.get(i), false), UserEntity.class));
+        }
+        List<UserEntity> saved = userRepository.saveAll(entities);
+        saved.forEach(user -> registeredEmailFilter.add(user.getEmail()));
+        return saved.stream().map(user -> DTOMapper.transform(user, UserResponseDTO.class)).toList();
+    }
+
     public UserResponseDTO findById(Long id) {
-        Optional<UserEntity> user = userRepository.findById(id);
-        return user.map(u -> DTOMapper.transform(u, UserResponseDTO.class)).orElse(null);
+        return userRepository.findResponseById(id).orElse(null);
     }
 
-    public UserResponseDTO update(Long id, UserRequestDTO userDTO) {
+    /**
+     * Versão atual do usuário para o ETag, ou {@code null} se ele não existe.
+     */
+    public String findVersionTag(Long id) {
+        return userRepository.findVersionTagById(id).orElse(null);
+    }
+
+    /**
+     * @param ifMatch {@code If-Match} da requisição, conferido contra a versão
+     *                lida aqui; {@code null} quando não há pré-condição
+     * @return {@code null} se o usuário não existe
+     * @throws PreconditionFailedException se a versão não confere
+     */
+    @Transactional
+    public UserResponseDTO update(Long id, UserRequestDTO userDTO, String ifMatch) {
         Optional<UserEntity> existingUserOpt = userRepository.findById(id);
 
         if (existingUserOpt.isEmpty()) {
@@ -44,6 +161,8 @@ public class UserService {
         }
 
         UserEntity existingUser = existingUserOpt.get();
+        ETags.requireMatch(ifMatch, versionTag(existingUser));
+        String previousEmail = existingUser.getEmail();
         if (userDTO.username() != null) {
             existingUser.setUsername(userDTO.username());
         }
@@ -57,21 +176,209 @@ public class UserService {
             existingUser.setAdmin(userDTO.admin());
         }
         UserEntity updated = userRepository.save(existingUser);
+        String email = updated.getEmail();
+        afterCommit(() -> {
+            userSnapshotCache.invalidate(id, previousEmail);
+            userSnapshotCache.invalidate(id, email);
+            registeredEmailFilter.add(email);
+        });
         return DTOMapper.transform(updated, UserResponseDTO.class);
     }
 
-    public UserResponseDTO delete(Long id) {
-        Optional<UserEntity> user = userRepository.findById(id);
-        if (user.isPresent()) {
-            userRepository.delete(user.get());
-            return DTOMapper.transform(user.get(), UserResponseDTO.class);
+    /**
+     * JSON Merge Patch: só os campos enviados são aplicados e, com o
+     * {@code @DynamicUpdate} da entidade, o UPDATE toca apenas as colunas que
+     * mudaram. Sem {@code password} no patch não há hash BCrypt.
+     *
+     * @return {@code null} se o usuário não existe
+     */
+    @Transactional
+    public UserResponseDTO patch(Long id, JsonNode patch, String ifMatch) {
+        MergePatch.requireObject(patch, PATCHABLE_FIELDS);
+        Optional<UserEntity> found = userRepository.findById(id);
+        if (found.isEmpty()) {
+            return null;
+        }
+        UserEntity user = found.get();
+        ETags.requireMatch(ifMatch, versionTag(user));
+        String previousEmail = user.getEmail();
+
+        boolean changed = MergePatch.text(patch, "username", false, user::getUsername,
+                username -> user.setUsername(checked("username", username.trim())));
+        changed |= MergePatch.text(patch, "email", false, user::getEmail, email -> {
+            String normalized = email.trim().toLowerCase();
+            if (!normalized.equals(previousEmail) && !isEmailAvailable(normalized)) {
+                throw new IllegalArgumentException("Email já cadastrado");
+            }
+            user.setEmail(checked("email", normalized));
+        });
+        // O valor atual é um hash, então qualquer senha enviada é tratada como nova
+        changed |= MergePatch.text(patch, "password", false, () -> null,
+                password -> user.setPassword(encryptPassword(checked("password", password))));
+        changed |= MergePatch.bool(patch, "admin", user::getAdmin, user::setAdmin);
+
+        if (changed) {
+            String email = user.getEmail();
+            afterCommit(() -> {
+                userSnapshotCache.invalidate(id, previousEmail);
+                if (!email.equals(previousEmail)) {
+                    userSnapshotCache.invalidate(id, email);
+                    registeredEmailFilter.add(email);
+                }
+            });
         }
-        return null;
+        return DTOMapper.transform(user, UserResponseDTO.class);
+    }
+
+    // Mesmo formato do findVersionTagById
+    private static String versionTag(UserEntity user) {
+        return String.valueOf(user.getVersion());
+    }
+
+    private <T> T checked(String property, T value) {
+        String error = UserConstraints.violation(validator, property, value);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        return value;
+    }
+
+    // Invalidar antes do commit deixaria outra thread recarregar o cache com o estado antigo
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Transactional
+    public UserResponseDTO delete(Long id, String ifMatch) {
+        Optional<UserEntity> found = userRepository.findById(id);
+        if (found.isEmpty()) {
+            return null;
+        }
+        UserEntity user = found.get();
+        ETags.requireMatch(ifMatch, versionTag(user));
+        UserResponseDTO deleted = DTOMapper.transform(user, UserResponseDTO.class);
+        addressRepository.softDeleteByUserIdIn(List.of(id));
+        if (userRepository.softDeleteByIdAndVersion(id, user.getVersion()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(UserEntity.class, id);
+        }
+        afterCommit(() -> userSnapshotCache.invalidate(id, deleted.email()));
+        return deleted;
+    }
+
+    /**
+     * Exclui usuários e seus endereços logicamente, com um UPDATE por tabela;
+     * as linhas somem das consultas na hora e são removidas fisicamente pelo
+     * {@link DeletedRowPurger}.
+     *
+     * @return quantos usuários foram excluídos
+     */
+    @Transactional
+    public int deleteAll(Collection<Long> ids) {
+        int deleted = softDeleteWithAddresses(ids);
+        afterCommit(userSnapshotCache::invalidateAll);
+        return deleted;
+    }
+
+    private int softDeleteWithAddresses(Collection<Long> ids) {
+        addressRepository.softDeleteByUserIdIn(ids);
+        return userRepository.softDeleteByIdIn(ids);
+    }
+
+    /**
+     * Promove ou rebaixa vários usuários num único UPDATE. Usuários que já
+     * estão no estado pedido não contam.
+     */
+    @Transactional
+    public int updateAdmin(Collection<Long> ids, boolean admin) {
+        int updated = userRepository.updateAdminByIdIn(ids, admin);
+        if (updated > 0) {
+            afterCommit(userSnapshotCache::invalidateAll);
+        }
+        return updated;
     }
 
     public Page<UserResponseDTO> findAll(int page, int pageSize) {
-        Page<UserEntity> users = userRepository.findAll(PageRequest.of(page - 1, pageSize));
-        return users.map(user -> DTOMapper.transform(user, UserResponseDTO.class));
+        return userRepository.findAllResponses(PageRequest.of(page - 1, pageSize));
+    }
+
+    /**
+     * Emails que o filtro garante não estarem cadastrados nem chegam ao banco.
+     */
+    public boolean isEmailAvailable(String email) {
+        if (email == null) {
+            return false;
+        }
+        String normalized = email.trim().toLowerCase();
+        return registeredEmailFilter.isDefinitelyAbsent(normalized) || !userRepository.existsByEmail(normalized);
+    }
+
+    /**
+     * Página sem {@code COUNT(*)}: com {@link CountMode#ESTIMATED} o total vem
+     * das estatísticas do Postgres; nos demais modos só se informa se há
+     * próxima página.
+     */
+    public PaginatedResponse<UserResponseDTO> findSlice(int page, int pageSize, CountMode countMode) {
+        Slice<UserResponseDTO> slice = userRepository.findResponseSlice(PageRequest.of(page - 1, pageSize));
+        if (countMode == CountMode.ESTIMATED) {
+            return PaginatedResponse.estimated(slice.getContent(), page, pageSize, slice.hasNext(),
+                    estimatedUserCount.get());
+        }
+        return PaginatedResponse.withoutCount(slice.getContent(), page, pageSize, slice.hasNext());
+    }
+
+    private long estimateUserCount() {
+        Long estimate = userRepository.estimateCount();
+        return estimate != null && estimate >= 0 ? estimate : userRepository.count();
+    }
+
+    /**
+     * Paginação por cursor em ordem de id: a busca parte do último id entregue
+     * pelo índice da chave primária, com custo igual em qualquer profundidade.
+     * Lê um registro a mais só para saber se existe próxima página.
+     */
+    public CursorPaginatedResponse<UserResponseDTO> findAfter(String cursor, int limit) {
+        Long lastId = Cursors.decode(cursor);
+        List<UserResponseDTO> items = userRepository.findResponsesAfter(
+                lastId == null ? 0L : lastId, Limit.of(limit + 1));
+        boolean hasNext = items.size() > limit;
+        if (hasNext) {
+            items = items.subList(0, limit);
+        }
+        String nextCursor = hasNext ? Cursors.encode(items.get(items.size() - 1).id()) : null;
+        return new CursorPaginatedResponse<>(items, limit, hasNext, nextCursor);
+    }
+
+    /**
+     * Busca por um campo liberado em {@link UserSearchField}, paginada por
+     * cursor como {@link #findAfter}, mas na ordem do índice do campo: o
+     * cursor guarda o valor do campo e o id do último registro.
+     */
+    public CursorPaginatedResponse<UserResponseDTO> search(UserSearchField field, UserSearchMode mode, String value,
+            String cursor, int limit) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Valor de busca obrigatório");
+        }
+        KeysetCursor after = Cursors.decodeKeyset(cursor);
+        List<UserResponseDTO> items = userRepository.search(field, mode, value.trim(), after, limit + 1);
+        boolean hasNext = items.size() > limit;
+        if (hasNext) {
+            items = items.subList(0, limit);
+        }
+        String nextCursor = null;
+        if (hasNext) {
+            UserResponseDTO last = items.get(items.size() - 1);
+            nextCursor = Cursors.encode(new KeysetCursor(field.valueOf(last), last.id()));
+        }
+        return new CursorPaginatedResponse<>(items, limit, hasNext, nextCursor);
     }
 
     public UserResponseDTO findByEmail(String email) {
@@ -0,0 +1,20 @@
+package com.br.mesusers.user;
+
+/**
+ * Cópia imutável dos dados de um usuário necessários para autenticação,
+ * mantida em memória pelo {@link UserSnapshotCache}.
+ */
+public record UserSnapshot(
+        Long id,
+        String email,
+        String username,
+        boolean admin) {
+
+    public static UserSnapshot of(UserEntity userEntity) {
+        return new UserSnapshot(
+                userEntity.getId(),
+                userEntity.getEmail(),
+                userEntity.getUsername(),
+                Boolean.TRUE.equals(userEntity.getAdmin()));
+    }
+}
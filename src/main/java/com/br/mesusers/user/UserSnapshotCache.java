@@ -0,0 +1,109 @@
+package com.br.mesusers.user;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.br.mesusers.shared.cache.CacheStats;
+import com.br.mesusers.shared.cache.ExpiringCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Cache dos {@link UserSnapshot}s usados na autenticação, indexado por email e
+ * por id. Deve ser invalidado a cada alteração ou remoção de usuário para que
+ * mudanças de perfil e exclusões valham já na próxima requisição; o TTL só
+ * cobre alterações feitas fora da aplicação.
+ */
+@Component
+public class UserSnapshotCache implements MeterBinder {
+
+    private static final int MAX_ENTRIES = 10_000;
+    private static final long TTL_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private final UserRepository userRepository;
+    private final ExpiringCache<String, UserSnapshot> byEmail = new ExpiringCache<>(MAX_ENTRIES);
+    private final ExpiringCache<Long, UserSnapshot> byId = new ExpiringCache<>(MAX_ENTRIES);
+    // Incrementado a cada invalidação: uma carga iniciada antes dela não repovoa o cache
+    private final AtomicLong generation = new AtomicLong();
+
+    public UserSnapshotCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public Optional<UserSnapshot> findByEmail(String email) {
+        UserSnapshot snapshot = byEmail.get(email);
+        if (snapshot != null) {
+            return Optional.of(snapshot);
+        }
+        long loadGeneration = generation.get();
+        Optional<UserSnapshot> loaded = userRepository.findByEmail(email).map(UserSnapshot::of);
+        loaded.ifPresent(s -> put(s, loadGeneration));
+        return loaded;
+    }
+
+    public Optional<UserSnapshot> findById(Long id) {
+        UserSnapshot snapshot = byId.get(id);
+        if (snapshot != null) {
+            return Optional.of(snapshot);
+        }
+        long loadGeneration = generation.get();
+        Optional<UserSnapshot> loaded = userRepository.findById(id).map(UserSnapshot::of);
+        loaded.ifPresent(s -> put(s, loadGeneration));
+        return loaded;
+    }
+
+    public synchronized void invalidate(Long id, String email) {
+        generation.incrementAndGet();
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        if (email != null) {
+            byEmail.invalidate(email);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        byId.invalidateAll();
+        byEmail.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        CacheStats email = byEmail.stats();
+        CacheStats id = byId.stats();
+        return new CacheStats(
+                email.hits() + id.hits(),
+                email.misses() + id.misses(),
+                email.evictions() + id.evictions(),
+                email.size() + id.size());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("users.snapshot.cache.hits", this, cache -> cache.stats().hits())
+                .description("Consultas de usuário atendidas pelo cache")
+                .register(registry);
+        FunctionCounter.builder("users.snapshot.cache.misses", this, cache -> cache.stats().misses())
+                .description("Consultas de usuário que foram ao banco")
+                .register(registry);
+        FunctionCounter.builder("users.snapshot.cache.evictions", this, cache -> cache.stats().evictions())
+                .register(registry);
+        Gauge.builder("users.snapshot.cache.size", this, cache -> cache.stats().size())
+                .register(registry);
+    }
+
+    private synchronized void put(UserSnapshot snapshot, long loadGeneration) {
+        if (generation.get() != loadGeneration) {
+            return;
+        }
+        long expiresAt = System.currentTimeMillis() + TTL_MS;
+        byEmail.put(snapshot.email(), snapshot, expiresAt);
+        byId.put(snapshot.id(), snapshot, expiresAt);
+    }
+}
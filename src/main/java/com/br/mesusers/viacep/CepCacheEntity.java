@@ -0,0 +1,61 @@
+package com.br.mesusers.viacep;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Resposta do ViaCep persistida por CEP (só dígitos), para que o cache
+ * sobreviva a reinícios. CEPs inexistentes também ficam gravados, com
+ * {@code notFound} ligado e prazo de validade menor.
+ */
+@Entity
+@Table(name = "cep_cache")
+@Getter
+@Setter
+@NoArgsConstructor
+public class CepCacheEntity {
+    @Id
+    @Column(length = 8)
+    private String cep;
+
+    private String formattedCep;
+
+    private String street;
+
+    private String complement;
+
+    private String neighborhood;
+
+    private String city;
+
+    private String state;
+
+    @Column(nullable = false)
+    private boolean notFound;
+
+    @Column(nullable = false)
+    private Instant fetchedAt;
+
+    public CepCacheEntity(String cep, ViaCepResponse response, Instant fetchedAt) {
+        this.cep = cep;
+        this.formattedCep = response.cep();
+        this.street = response.street();
+        this.complement = response.complement();
+        this.neighborhood = response.neighborhood();
+        this.city = response.city();
+        this.state = response.state();
+        this.notFound = response.error();
+        this.fetchedAt = fetchedAt;
+    }
+
+    public ViaCepResponse toResponse() {
+        return new ViaCepResponse(formattedCep, street, complement, neighborhood, city, state, notFound);
+    }
+}
@@ -0,0 +1,18 @@
+package com.br.mesusers.viacep;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface CepCacheRepository extends JpaRepository<CepCacheEntity, String> {
+
+    @Transactional
+    @Modifying
+    @Query("delete from CepCacheEntity c where c.fetchedAt < :foundBefore "
+            + "or (c.notFound = true and c.fetchedAt < :notFoundBefore)")
+    int deleteExpired(@Param("notFoundBefore") Instant notFoundBefore, @Param("foundBefore") Instant foundBefore);
+}
@@ -0,0 +1,163 @@
+package com.br.mesusers.viacep;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Base de CEPs offline lida direto de um arquivo mapeado em memória, no
+ * formato gravado pelo {@link CepIndexWriter}:
+ *
+ * <pre>
+ * cabeçalho   magic, versão, nº de registros, nº de strings (4 ints)
+ * registros   ordenados pelo CEP: cep, logradouro, complemento, bairro, cidade, UF (6 ints cada)
+ * offsets     início de cada string no bloco de texto (nº de strings + 1 ints)
+ * texto       strings UTF-8 concatenadas, sem repetição
+ * </pre>
+ *
+ * Os campos de texto dos registros são índices no dicionário de strings
+ * ({@code -1} para ausente), então cada cidade, bairro ou logradouro aparece
+ * uma vez só no arquivo. A busca é binária sobre o CEP como int e só lê do
+ * mapeamento; a mesma instância atende várias threads.
+ */
+public final class CepIndex {
+
+    static final int MAGIC = 0x43455049;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 * Integer.BYTES;
+    static final int RECORD_INTS = 6;
+    static final int RECORD_BYTES = RECORD_INTS * Integer.BYTES;
+    static final int NO_STRING = -1;
+
+    private final ByteBuffer buffer;
+    private final int recordCount;
+    private final int stringCount;
+    private final int offsetsStart;
+    private final int textStart;
+
+    private CepIndex(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Arquivo não é um índice de CEP válido");
+        }
+        int records = buffer.getInt(8);
+        int stringsInIndex = buffer.getInt(12);
+        long offsets = HEADER_BYTES + (long) records * RECORD_BYTES;
+        long text = offsets + (stringsInIndex + 1L) * Integer.BYTES;
+        if (records < 0 || stringsInIndex < 0 || text > buffer.capacity()
+                || text + buffer.getInt((int) text - Integer.BYTES) != buffer.capacity()) {
+            throw new IllegalArgumentException("Índice de CEP truncado ou corrompido");
+        }
+        this.buffer = buffer;
+        this.recordCount = records;
+        this.stringCount = stringsInIndex;
+        this.offsetsStart = (int) offsets;
+        this.textStart = (int) text;
+    }
+
+    public static CepIndex open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Índice de CEP maior que 2 GB");
+            }
+            // O mapeamento continua válido depois de fechar o canal
+            return new CepIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return o endereço do CEP (com ou sem hífen), ou {@code null} se ele não
+     *         estiver na base
+     */
+    public ViaCepResponse find(String cep) {
+        int key = parse(cep);
+        if (key < 0) {
+            return null;
+        }
+        int low = 0;
+        int high = recordCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midCep = buffer.getInt(recordOffset(mid));
+            if (midCep < key) {
+                low = mid + 1;
+            } else if (midCep > key) {
+                high = mid - 1;
+            } else {
+                return read(mid, key);
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return recordCount;
+    }
+
+    int stringCount() {
+        return stringCount;
+    }
+
+    private ViaCepResponse read(int record, int cep) {
+        int offset = recordOffset(record) + Integer.BYTES;
+        return new ViaCepResponse(
+                format(cep),
+                string(buffer.getInt(offset)),
+                string(buffer.getInt(offset + Integer.BYTES)),
+                string(buffer.getInt(offset + 2 * Integer.BYTES)),
+                string(buffer.getInt(offset + 3 * Integer.BYTES)),
+                string(buffer.getInt(offset + 4 * Integer.BYTES)));
+    }
+
+    private String string(int id) {
+        if (id == NO_STRING) {
+            return null;
+        }
+        int start = buffer.getInt(offsetsStart + id * Integer.BYTES);
+        int end = buffer.getInt(offsetsStart + (id + 1) * Integer.BYTES);
+        byte[] bytes = new byte[end - start];
+        buffer.get(textStart + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int recordOffset(int record) {
+        return HEADER_BYTES + record * RECORD_BYTES;
+    }
+
+    /**
+     * @return os 8 dígitos do CEP como int, ou -1 se não for um CEP
+     */
+    static int parse(String cep) {
+        if (cep == null) {
+            return -1;
+        }
+        int value = 0;
+        int digits = 0;
+        for (int i = 0; i < cep.length(); i++) {
+            char c = cep.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits++;
+            } else if (c != '-' || digits != 5) {
+                return -1;
+            }
+            if (digits > 8) {
+                return -1;
+            }
+        }
+        return digits == 8 ? value : -1;
+    }
+
+    static String format(int cep) {
+        String digits = digits(cep);
+        return digits.substring(0, 5) + "-" + digits.substring(5);
+    }
+
+    // Os 8 dígitos, com os zeros à esquerda que o int perdeu
+    static String digits(int cep) {
+        String digits = Integer.toString(cep);
+        return "0".repeat(8 - digits.length()) + digits;
+    }
+}
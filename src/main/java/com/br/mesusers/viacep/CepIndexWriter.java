@@ -0,0 +1,143 @@
+package com.br.mesusers.viacep;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Monta o arquivo lido pelo {@link CepIndex}. Os registros podem chegar em
+ * qualquer ordem; são ordenados pelo CEP na gravação, e cada string distinta
+ * é gravada uma única vez.
+ *
+ * Para gerar o índice a partir de uma base exportada (como a DNE dos
+ * Correios, achatada em um arquivo por linha com
+ * {@code cep;logradouro;complemento;bairro;cidade;uf}):
+ *
+ * <pre>
+ * java -cp app.jar com.br.mesusers.viacep.CepIndexWriter ceps.csv ceps.idx [separador]
+ * </pre>
+ */
+public class CepIndexWriter {
+
+    private final List<int[]> records = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<byte[]> strings = new ArrayList<>();
+    private long textBytes;
+
+    public void add(String cep, String street, String complement, String neighborhood, String city,
+            String state) {
+        int key = CepIndex.parse(cep);
+        if (key < 0) {
+            throw new IllegalArgumentException("CEP inválido: " + cep);
+        }
+        records.add(new int[] { key, intern(street), intern(complement), intern(neighborhood), intern(city),
+                intern(state) });
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    public void write(Path path) throws IOException {
+        int[][] sorted = records.toArray(int[][]::new);
+        Arrays.sort(sorted, Comparator.comparingInt(record -> record[0]));
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i][0] == sorted[i - 1][0]) {
+                throw new IllegalArgumentException("CEP duplicado: " + CepIndex.format(sorted[i][0]));
+            }
+        }
+        long tableBytes = CepIndex.HEADER_BYTES + (long) sorted.length * CepIndex.RECORD_BYTES
+                + (strings.size() + 1L) * Integer.BYTES;
+        if (tableBytes + textBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Índice de CEP maior que 2 GB");
+        }
+
+        ByteBuffer table = ByteBuffer.allocate((int) tableBytes);
+        table.putInt(CepIndex.MAGIC).putInt(CepIndex.VERSION).putInt(sorted.length).putInt(strings.size());
+        for (int[] record : sorted) {
+            for (int value : record) {
+                table.putInt(value);
+            }
+        }
+        int offset = 0;
+        for (byte[] string : strings) {
+            table.putInt(offset);
+            offset += string.length;
+        }
+        table.putInt(offset);
+
+        try (OutputStream out = Files.newOutputStream(path)) {
+            out.write(table.array());
+            for (byte[] string : strings) {
+                out.write(string);
+            }
+        }
+    }
+
+    /**
+     * Lê um arquivo com um CEP por linha, campos na ordem
+     * {@code cep, logradouro, complemento, bairro, cidade, uf}; campos vazios
+     * viram ausentes.
+     */
+    public static CepIndexWriter readDelimited(BufferedReader reader, char separator) throws IOException {
+        Pattern splitter = Pattern.compile(Pattern.quote(String.valueOf(separator)));
+        CepIndexWriter writer = new CepIndexWriter();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] fields = splitter.split(line, -1);
+            if (fields.length != 6) {
+                throw new IllegalArgumentException("Linha " + lineNumber + ": esperados 6 campos, encontrados "
+                        + fields.length);
+            }
+            writer.add(fields[0].trim(), blankToNull(fields[1]), blankToNull(fields[2]), blankToNull(fields[3]),
+                    blankToNull(fields[4]), blankToNull(fields[5]));
+        }
+        return writer;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CepIndexWriter <entrada> <índice> [separador]");
+            System.exit(1);
+        }
+        char separator = args.length > 2 ? args[2].charAt(0) : ';';
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            CepIndexWriter writer = readDelimited(reader, separator);
+            writer.write(Path.of(args[1]));
+            System.out.println(writer.size() + " CEPs gravados em " + args[1]);
+        }
+    }
+
+    private int intern(String value) {
+        if (value == null) {
+            return CepIndex.NO_STRING;
+        }
+        return stringIds.computeIfAbsent(value, v -> {
+            byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+            strings.add(bytes);
+            textBytes += bytes.length;
+            return strings.size() - 1;
+        });
+    }
+
+    private static String blankToNull(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
@@ -1,23 +1,256 @@
 package com.br.mesusers.viacep;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.stereotype.Service;
+import com.br.mesusers.shared.cache.CacheStats;
+import com.br.mesusers.shared.cache.ExpiringCache;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Consulta de CEP com uma base offline opcional ({@link CepIndex}, configurada
+ * em {@code viacep.offline-index.path}) na frente de tudo; CEPs que não
+ * estão nela vão ao ViaCep com cache em dois níveis: um {@link ExpiringCache}
+ * em memória e a tabela {@code cep_cache}, que sobrevive a reinícios. Só vai
+ * ao ViaCep quando nenhum dos dois tem uma resposta dentro do prazo.
+ *
+ * Respostas {@code erro: true} (CEP inexistente) também são guardadas, com um
+ * prazo menor, e viram {@link IllegalArgumentException} para quem consulta.
+ * Se o ViaCep falhar, uma resposta vencida da tabela ainda serve.
+ *
+ * Consultas simultâneas ao mesmo CEP que não acharam nada na memória
+ * compartilham uma única busca em andamento: a primeira consulta ao banco e ao
+ * ViaCep, as demais esperam o mesmo resultado (ou a mesma falha) por no
+ * máximo os timeouts de conexão e leitura do ViaCep
+ * ({@code viacep.http.connect-timeout-ms} e {@code viacep.http.read-timeout-ms}).
+ */
 @Service
-public class ViaCepService {
+public class ViaCepService implements MeterBinder {
+
+    // Folga para a consulta ao cep_cache que antecede a chamada HTTP
+    private static final long AWAIT_MARGIN_MS = 1_000;
 
     private final RestTemplate restTemplate;
+    private final CepIndex offlineIndex;
+    private final CepCacheRepository cepCacheRepository;
+    private final ExpiringCache<String, ViaCepResponse> cache;
+    private final LongSupplier clock;
+    private final long ttlMs;
+    private final long negativeTtlMs;
+    private final long awaitTimeoutMs;
+    private final ConcurrentHashMap<String, CompletableFuture<ViaCepResponse>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder remoteCalls = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder offlineHits = new LongAdder();
+    private final LongAdder purgedEntries = new LongAdder();
+
+    @Autowired
+    public ViaCepService(RestTemplateBuilder restTemplateBuilder, CepCacheRepository cepCacheRepository,
+            @Value("${viacep.cache.max-entries:10000}") int maxEntries,
+            @Value("${viacep.cache.ttl-ms:2592000000}") long ttlMs,
+            @Value("${viacep.cache.negative-ttl-ms:3600000}") long negativeTtlMs,
+            @Value("${viacep.offline-index.path:}") String offlineIndexPath,
+            @Value("${viacep.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${viacep.http.read-timeout-ms:5000}") long readTimeoutMs) {
+        this(restTemplateBuilder
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .readTimeout(Duration.ofMillis(readTimeoutMs))
+                .build(),
+                openIndex(offlineIndexPath), cepCacheRepository, maxEntries, ttlMs, negativeTtlMs,
+                // Quem espera a busca de outra thread desiste junto com o pior caso do HTTP dela
+                connectTimeoutMs + readTimeoutMs + AWAIT_MARGIN_MS, System::currentTimeMillis);
+    }
 
-    public ViaCepService(RestTemplateBuilder restTemplateBuilder) {
-        this.restTemplate = restTemplateBuilder.build();
+    ViaCepService(RestTemplate restTemplate, CepIndex offlineIndex, CepCacheRepository cepCacheRepository,
+            int maxEntries, long ttlMs, long negativeTtlMs, long awaitTimeoutMs, LongSupplier clock) {
+        this.restTemplate = restTemplate;
+        this.offlineIndex = offlineIndex;
+        this.cepCacheRepository = cepCacheRepository;
+        this.cache = new ExpiringCache<>(maxEntries, clock);
+        this.clock = clock;
+        this.ttlMs = ttlMs;
+        this.negativeTtlMs = negativeTtlMs;
+        this.awaitTimeoutMs = awaitTimeoutMs;
     }
 
+    /**
+     * @param cep 8 dígitos, com ou sem hífen depois do quinto
+     * @throws IllegalArgumentException se não for um CEP (sem consultar os
+     *                                  caches nem o ViaCep) ou se o ViaCep
+     *                                  disse que ele não existe
+     */
     public ViaCepResponse getAddressFromCep(String cep) {
-        String url = "https://viacep.com.br/ws/" + cep.replace("-", "") + "/json/";
+        int parsed = CepIndex.parse(cep == null ? null : cep.trim());
+        if (parsed < 0) {
+            throw new IllegalArgumentException("CEP inválido");
+        }
+        ViaCepResponse response = lookup(CepIndex.digits(parsed));
+        // O "não existe" fica em cache para poupar o ViaCep, mas nunca chega a quem monta um endereço
+        if (response.error()) {
+            throw new IllegalArgumentException("CEP não encontrado");
+        }
+        return response;
+    }
+
+    private ViaCepResponse lookup(String key) {
+        if (offlineIndex != null) {
+            ViaCepResponse local = offlineIndex.find(key);
+            if (local != null) {
+                offlineHits.increment();
+                return local;
+            }
+        }
+        ViaCepResponse cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<ViaCepResponse> flight = new CompletableFuture<>();
+        CompletableFuture<ViaCepResponse> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        try {
+            ViaCepResponse response = load(key);
+            flight.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Só sai do mapa depois de completar: quem chegar depois já encontra a resposta na memória
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Apaga da tabela {@code cep_cache} as respostas que já não servem: CEPs
+     * inexistentes vencidos e respostas vencidas há mais de um prazo inteiro.
+     * Até lá, uma resposta vencida ainda cobre falhas do ViaCep, e qualquer
+     * consulta bem-sucedida a renova.
+     */
+    @Scheduled(cron = "${viacep.cache.purge-cron:0 30 3 * * *}")
+    public void purgeStored() {
+        long now = clock.getAsLong();
+        int removed = cepCacheRepository.deleteExpired(Instant.ofEpochMilli(now - negativeTtlMs),
+                Instant.ofEpochMilli(now - 2 * ttlMs));
+        purgedEntries.add(removed);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("viacep.cache.hits", this, service -> service.stats().hits())
+                .description("Consultas de CEP atendidas pelo cache em memória")
+                .register(registry);
+        FunctionCounter.builder("viacep.cache.misses", this, service -> service.stats().misses())
+                .register(registry);
+        FunctionCounter.builder("viacep.remote.calls", remoteCalls, LongAdder::sum)
+                .description("Consultas feitas ao ViaCep")
+                .register(registry);
+        FunctionCounter.builder("viacep.lookups.coalesced", coalesced, LongAdder::sum)
+                .description("Consultas que aproveitaram uma busca do mesmo CEP já em andamento")
+                .register(registry);
+        FunctionCounter.builder("viacep.offline.hits", offlineHits, LongAdder::sum)
+                .description("Consultas de CEP resolvidas pela base offline")
+                .register(registry);
+        FunctionCounter.builder("viacep.cache.purged", purgedEntries, LongAdder::sum)
+                .description("Respostas vencidas removidas da tabela cep_cache")
+                .register(registry);
+        Gauge.builder("viacep.cache.size", this, service -> service.stats().size())
+                .register(registry);
+    }
+
+    private static CepIndex openIndex(String path) {
+        if (path == null || path.isBlank()) {
+            return null;
+        }
+        try {
+            return CepIndex.open(Path.of(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir a base offline de CEPs em " + path, e);
+        }
+    }
+
+    private ViaCepResponse load(String key) {
+        Optional<CepCacheEntity> stored = findStored(key);
+        if (stored.isPresent() && expiresAt(stored.get()) > clock.getAsLong()) {
+            ViaCepResponse response = stored.get().toResponse();
+            cache.put(key, response, expiresAt(stored.get()));
+            return response;
+        }
+
+        ViaCepResponse response;
+        try {
+            response = fetch(key);
+        } catch (RestClientException e) {
+            if (stored.isEmpty()) {
+                throw e;
+            }
+            // Com o ViaCep fora, as próximas consultas usam a resposta vencida sem esperar os timeouts;
+            // ele volta a ser tentado depois do prazo curto dos CEPs inexistentes
+            ViaCepResponse stale = stored.get().toResponse();
+            cache.put(key, stale, clock.getAsLong() + negativeTtlMs);
+            return stale;
+        }
+
+        CepCacheEntity entry = new CepCacheEntity(key, response, Instant.ofEpochMilli(clock.getAsLong()));
+        store(entry);
+        cache.put(key, response, expiresAt(entry));
+        return response;
+    }
+
+    private ViaCepResponse await(CompletableFuture<ViaCepResponse> flight) {
+        try {
+            return flight.get(awaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResourceAccessException("Tempo esgotado esperando a consulta do CEP em andamento");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Consulta do CEP interrompida");
+        }
+    }
+
+    private ViaCepResponse fetch(String cep) {
+        remoteCalls.increment();
+        String url = "https://viacep.com.br/ws/" + cep + "/json/";
         var response = restTemplate.getForObject(url, ViaCepResponse.class);
 
         if (response == null) {
@@ -26,4 +259,24 @@ public class ViaCepService {
         return response;
     }
 
+    // O cache persistente é só uma otimização: falha no banco não impede a consulta
+    private Optional<CepCacheEntity> findStored(String cep) {
+        try {
+            return cepCacheRepository.findById(cep);
+        } catch (DataAccessException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void store(CepCacheEntity entry) {
+        try {
+            cepCacheRepository.save(entry);
+        } catch (DataAccessException e) {
+            // Outra requisição gravou o mesmo CEP ao mesmo tempo; a memória ainda recebe a resposta
+        }
+    }
+
+    private long expiresAt(CepCacheEntity entry) {
+        return entry.getFetchedAt().toEpochMilli() + (entry.isNotFound() ? negativeTtlMs : ttlMs);
+    }
 }
@@ -1,18 +1,24 @@
 package com.br.mesusers.address;
 
-import com.br.mesusers.auth.AuthService;
+import com.br.mesusers.auth.AuthenticatedUser;
+import com.br.mesusers.shared.http.PreconditionFailedException;
 import com.br.mesusers.shared.records.PaginatedResponse;
 import com.br.mesusers.shared.records.ResponseRecord;
-import com.br.mesusers.user.UserEntity;
 import com.br.mesusers.user.UserResponseDTO;
 import com.br.mesusers.viacep.ViaCepResponse;
 import com.br.mesusers.viacep.ViaCepService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.security.auth.message.AuthException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -21,6 +27,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,22 +45,20 @@ class AddressControllerTest {
     @Mock
     private ViaCepService viaCepService;
 
-    @Mock
-    private AuthService authService;
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
 
     @InjectMocks
     private AddressController addressController;
 
-    private UserEntity userEntity;
+    private AuthenticatedUser currentUser;
     private AddressRequestDTO addressRequestDTO;
     private ViaCepResponse viaCepResponse;
     private AddressResponseDTO addressResponseDTO;
 
     @BeforeEach
     void setUp() {
-        userEntity = new UserEntity();
-        userEntity.setId(1L);
-        userEntity.setAdmin(false);
+        currentUser = new AuthenticatedUser(1L, "joao@gmail.com", false);
 
         addressRequestDTO = new AddressRequestDTO(
                 "12345678",
@@ -85,12 +90,11 @@ class AddressControllerTest {
     }
 
     @Test
-    void create_ShouldReturnAddress_WhenAuthorized() throws AuthException {
-        when(authService.getCurrentUser(anyString())).thenReturn(userEntity);
+    void create_ShouldReturnAddress_WhenAuthorized() {
         when(viaCepService.getAddressFromCep(anyString())).thenReturn(viaCepResponse);
         when(addressService.create(any())).thenReturn(addressResponseDTO);
 
-        ResponseEntity<ResponseRecord<AddressResponseDTO>> response = addressController.create("token",
+        ResponseEntity<ResponseRecord<AddressResponseDTO>> response = addressController.create(currentUser,
                 addressRequestDTO);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -99,13 +103,12 @@ class AddressControllerTest {
     }
 
     @Test
-    void create_ShouldReturnForbidden_WhenUnauthorized() throws AuthException {
-        userEntity.setId(2L);
-        when(authService.getCurrentUser(anyString())).thenReturn(userEntity);
+    void create_ShouldReturnForbidden_WhenUnauthorized() {
+        currentUser = new AuthenticatedUser(2L, "maria@gmail.com", false);
         addressRequestDTO = new AddressRequestDTO(
                 "12345678", "123", "Apto 101", null, null, null, null, 1L);
 
-        ResponseEntity<ResponseRecord<AddressResponseDTO>> response = addressController.create("token",
+        ResponseEntity<ResponseRecord<AddressResponseDTO>> response = addressController.create(currentUser,
                 addressRequestDTO);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -116,7 +119,7 @@ class AddressControllerTest {
     void getById_ShouldReturnAddress() throws AuthException {
         when(addressService.findById(anyLong())).thenReturn(addressResponseDTO);
 
-        ResponseEntity<ResponseRecord<AddressResponseDTO>> response = addressController.getById("token", 1L);
+        ResponseEntity<ResponseRecord<AddressResponseDTO>> response = addressController.getById("token", 1L, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(addressResponseDTO, response.getBody().data());
@@ -131,42 +134,127 @@ class AddressControllerTest {
         when(addressService.findAll(anyInt(), anyInt())).thenReturn(page);
 
         ResponseEntity<ResponseRecord<PaginatedResponse<AddressResponseDTO>>> response = addressController
-                .getAll("token", 1, 10);
+                .getAll("token", 1, 10, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(1, response.getBody().data().items().size());
     }
 
     @Test
-    void update_ShouldReturnUpdatedAddress_WhenAuthorized() throws AuthException {
-        when(authService.getUserIdFromToken(anyString())).thenReturn(1L);
+    void update_ShouldReturnUpdatedAddress_WhenAuthorized() {
         when(viaCepService.getAddressFromCep(anyString())).thenReturn(viaCepResponse);
-        when(addressService.update(anyLong(), anyLong(), any())).thenReturn(addressResponseDTO);
+        when(addressService.update(anyLong(), anyLong(), any(), any())).thenReturn(addressResponseDTO);
 
-        ResponseEntity<ResponseRecord<AddressResponseDTO>> response = addressController.update("token", 1L,
-                addressRequestDTO);
+        ResponseEntity<ResponseRecord<AddressResponseDTO>> response = addressController.update(currentUser, 1L,
+                addressRequestDTO, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(addressResponseDTO, response.getBody().data());
     }
 
     @Test
-    void delete_ShouldReturnSuccess_WhenAuthorized() throws AuthException {
-        when(authService.getUserIdFromToken(anyString())).thenReturn(1L);
-        when(addressService.findById(anyLong())).thenReturn(addressResponseDTO);
-        when(addressService.delete(anyLong())).thenReturn(addressResponseDTO);
+    void create_ShouldReturnBadRequest_WhenCepDoesNotExist() {
+        when(viaCepService.getAddressFromCep("12345678"))
+                .thenThrow(new IllegalArgumentException("CEP não encontrado"));
 
-        ResponseEntity<ResponseRecord<Void>> response = addressController.delete("token", 1L);
+        ResponseEntity<ResponseRecord<AddressResponseDTO>> response = addressController.create(currentUser,
+                addressRequestDTO);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("CEP não encontrado", response.getBody().message());
+        verifyNoInteractions(addressService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createAll_ShouldDefaultOwnerToCurrentUser() {
+        AddressRequestDTO withoutOwner = new AddressRequestDTO("12345678", "10", null, null, null, null, null, null);
+        when(viaCepService.getAddressFromCep("12345678")).thenReturn(viaCepResponse);
+        when(addressService.createAll(any())).thenReturn(List.of(addressResponseDTO));
+
+        ResponseEntity<ResponseRecord<List<AddressResponseDTO>>> response = addressController.createAll(currentUser,
+                List.of(withoutOwner));
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        ArgumentCaptor<List<AddressRequestDTO>> saved = ArgumentCaptor.forClass(List.class);
+        verify(addressService).createAll(saved.capture());
+        assertEquals(1L, saved.getValue().get(0).userId());
     }
 
     @Test
-    void delete_ShouldReturnForbidden_WhenUnauthorized() throws AuthException {
-        when(authService.getUserIdFromToken(anyString())).thenReturn(2L);
-        when(addressService.findById(anyLong())).thenReturn(addressResponseDTO);
+    void createAll_ShouldRejectInvalidElement_BeforeViaCep() {
+        AddressRequestDTO blankNumber = new AddressRequestDTO("12345678", " ", null, null, null, null, null, 1L);
+
+        ResponseEntity<ResponseRecord<List<AddressResponseDTO>>> response = addressController.createAll(currentUser,
+                List.of(addressRequestDTO, blankNumber));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Endereço 2: Número é obrigatório", response.getBody().message());
+        verifyNoInteractions(viaCepService, addressService);
+    }
+
+    @Test
+    void createAll_ShouldReturnBadRequest_WhenOwnerDoesNotExist() {
+        AuthenticatedUser admin = new AuthenticatedUser(1L, "joao@gmail.com", true);
+        when(viaCepService.getAddressFromCep("12345678")).thenReturn(viaCepResponse);
+        when(addressService.createAll(any())).thenThrow(new EntityNotFoundException("Usuário não encontrado"));
+
+        ResponseEntity<ResponseRecord<List<AddressResponseDTO>>> response = addressController.createAll(admin,
+                List.of(addressRequestDTO));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Usuário não encontrado", response.getBody().message());
+    }
+
+    @Test
+    void patch_ShouldRejectCepDerivedFields_SentByClient() throws Exception {
+        when(addressService.findOptionalById(1L)).thenReturn(Optional.of(addressResponseDTO));
+
+        ResponseEntity<ResponseRecord<AddressResponseDTO>> response = addressController.patch(currentUser, 1L,
+                new ObjectMapper().readTree("{\"city\": \"Campinas\"}"), null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Campo não suportado: city", response.getBody().message());
+        verify(addressService, never()).patch(anyLong(), any(), any());
+    }
+
+    @Test
+    void patch_ShouldReturnNotFound_WhenAddressDoesNotExist() throws Exception {
+        when(addressService.findOptionalById(1L)).thenReturn(Optional.empty());
+
+        ResponseEntity<ResponseRecord<AddressResponseDTO>> response = addressController.patch(currentUser, 1L,
+                new ObjectMapper().readTree("{\"number\": \"10\"}"), null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(addressService, never()).patch(anyLong(), any(), any());
+    }
+
+    @Test
+    void delete_ShouldReturnSuccess_WhenAuthorized() {
+        when(addressService.findOptionalById(anyLong())).thenReturn(Optional.of(addressResponseDTO));
+        when(addressService.delete(anyLong(), any())).thenReturn(addressResponseDTO);
+
+        ResponseEntity<ResponseRecord<Void>> response = addressController.delete(currentUser, 1L, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void delete_ShouldReturnPreconditionFailed_WhenIfMatchIsStale() {
+        when(addressService.findOptionalById(anyLong())).thenReturn(Optional.of(addressResponseDTO));
+        when(addressService.delete(1L, "\"2.1\"")).thenThrow(new PreconditionFailedException());
+
+        ResponseEntity<ResponseRecord<Void>> response = addressController.delete(currentUser, 1L, "\"2.1\"");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+    }
+
+    @Test
+    void delete_ShouldReturnForbidden_WhenUnauthorized() {
+        AuthenticatedUser anotherUser = new AuthenticatedUser(2L, "maria@gmail.com", false);
+        when(addressService.findOptionalById(anyLong())).thenReturn(Optional.of(addressResponseDTO));
 
-        ResponseEntity<ResponseRecord<Void>> response = addressController.delete("token", 1L);
+        ResponseEntity<ResponseRecord<Void>> response = addressController.delete(anotherUser, 1L, null);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
@@ -0,0 +1,89 @@
+package com.br.mesusers.address;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.br.mesusers.user.UserEntity;
+import com.br.mesusers.user.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+@ExtendWith(MockitoExtension.class)
+class AddressServiceTest {
+
+    @Mock
+    private AddressRepository addressRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private AddressService addressService;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private AddressEntity address;
+
+    @BeforeEach
+    void setUp() {
+        UserEntity user = new UserEntity();
+        user.setId(1L);
+        user.setVersion(0L);
+
+        address = new AddressEntity();
+        address.setId(10L);
+        address.setVersion(0L);
+        address.setCep("01001000");
+        address.setNumber("100");
+        address.setStreet("Praça da Sé");
+        address.setNeighborhood("Sé");
+        address.setCity("São Paulo");
+        address.setState("SP");
+        address.setUser(user);
+    }
+
+    @Test
+    void patch_ShouldApplyDtoConstraints_ToMergedAddress() throws Exception {
+        when(addressRepository.findById(10L)).thenReturn(Optional.of(address));
+
+        IllegalArgumentException blank = assertThrows(IllegalArgumentException.class,
+                () -> addressService.patch(10L, mapper.readTree("{\"number\": \" \"}"), null));
+        // Sem transação no teste, nada desfaz a alteração rejeitada
+        address.setNumber("100");
+        IllegalArgumentException state = assertThrows(IllegalArgumentException.class,
+                () -> addressService.patch(10L, mapper.readTree("{\"state\": \"SPX\"}"), null));
+
+        assertEquals("Número é obrigatório", blank.getMessage());
+        assertEquals("Estado deve ter 2 caracteres", state.getMessage());
+        verify(addressRepository, never()).findResponseById(anyLong());
+    }
+
+    @Test
+    void patch_ShouldRejectMissingOwner() throws Exception {
+        when(addressRepository.findById(10L)).thenReturn(Optional.of(address));
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> addressService.patch(10L, mapper.readTree("{\"userId\": 2}"), null));
+
+        assertEquals("Usuário não encontrado", e.getMessage());
+    }
+}
@@ -9,8 +9,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -23,12 +25,16 @@ class AuthControllerTest {
     @Mock
     private AuthService authService;
 
+    @Mock
+    private LoginRateLimiter loginRateLimiter;
+
     @InjectMocks
     private AuthController authController;
 
     private LoginRequestDTO loginRequest;
     private AuthResponseDTO authResponse;
     private UserResponseDTO userResponse;
+    private MockHttpServletRequest request;
 
     @BeforeEach
     void setUp() {
@@ -43,30 +49,28 @@ class AuthControllerTest {
         );
         
         userResponse = new UserResponseDTO(1L, "User Name", "user@example.com", false);
+        request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
     }
 
     @Test
     void login_ShouldReturnToken_WhenCredentialsAreValid() throws AuthException {
         // Arrange
-        when(authService.authenticate(any(LoginRequestDTO.class))).thenReturn("token123");
-        when(authService.getUserIdFromToken(anyString())).thenReturn(1L);
-        when(authService.isAdmin(anyString())).thenReturn(false);
-        when(authService.getJwtExpirationMs()).thenReturn(3600000L);
+        when(authService.authenticate(any(LoginRequestDTO.class)))
+            .thenReturn(new TokenIssuance("token123", 1L, false, 3600000L));
 
         // Act
         ResponseEntity<ResponseRecord<AuthResponseDTO>> response = 
-            authController.login(loginRequest);
+            authController.login(loginRequest, request);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().success());
         assertEquals("Login realizado com sucesso", response.getBody().message());
-        assertEquals("token123", response.getBody().data().token());
+        assertEquals(authResponse, response.getBody().data());
         
         verify(authService).authenticate(loginRequest);
-        verify(authService).getUserIdFromToken("token123");
-        verify(authService).isAdmin("token123");
-        verify(authService).getJwtExpirationMs();
+        verify(authService, never()).validateAndParseToken(anyString());
     }
 
     @Test
@@ -77,7 +81,7 @@ class AuthControllerTest {
 
         // Act
         ResponseEntity<ResponseRecord<AuthResponseDTO>> response = 
-            authController.login(loginRequest);
+            authController.login(loginRequest, request);
 
         // Assert
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
@@ -85,6 +89,23 @@ class AuthControllerTest {
         assertEquals("Credenciais inválidas", response.getBody().message());
         
         verify(authService).authenticate(loginRequest);
+        verify(loginRateLimiter).recordFailure("user@example.com");
+    }
+
+    @Test
+    void login_ShouldReturnTooManyRequests_WhenThrottled() throws AuthException {
+        // Arrange
+        when(loginRateLimiter.tryAcquire("user@example.com", "10.0.0.1")).thenReturn(1500L);
+
+        // Act
+        ResponseEntity<ResponseRecord<AuthResponseDTO>> response =
+            authController.login(loginRequest, request);
+
+        // Assert
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertFalse(response.getBody().success());
+        verify(authService, never()).authenticate(any());
     }
 
     @Test
@@ -102,15 +123,15 @@ class AuthControllerTest {
         assertTrue(response.getBody().success());
         assertEquals(userResponse, response.getBody().data());
         
-        verify(authService).validateToken("validToken123");
         verify(authService).reauthenticate("validToken123");
+        verify(authService, never()).validateToken(anyString());
     }
 
     @Test
     void validateToken_ShouldReturnUnauthorized_WhenTokenIsInvalid() throws AuthException {
         // Arrange
         String invalidToken = "Bearer invalidToken";
-        when(authService.validateToken(anyString()))
+        when(authService.reauthenticate(anyString()))
             .thenThrow(new AuthException("Token inválido"));
 
         // Act
@@ -122,18 +143,39 @@ class AuthControllerTest {
         assertEquals(401, response.getBody().statusCode());
         assertEquals("Token inválido", response.getBody().message());
         
-        verify(authService).validateToken("invalidToken");
-        verify(authService, never()).reauthenticate(anyString());
+        verify(authService).reauthenticate("invalidToken");
+    }
+
+    @Test
+    void logout_ShouldRevokeToken() throws AuthException {
+        // Act
+        ResponseEntity<ResponseRecord<Void>> response = authController.logout("Bearer token123");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Logout realizado com sucesso", response.getBody().message());
+        verify(authService).revoke("token123");
+    }
+
+    @Test
+    void logout_ShouldReturnUnauthorized_WhenTokenIsInvalid() throws AuthException {
+        // Arrange
+        doThrow(new AuthException("Token expirado")).when(authService).revoke(anyString());
+
+        // Act
+        ResponseEntity<ResponseRecord<Void>> response = authController.logout("Bearer expirado");
+
+        // Assert
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        assertEquals("Token expirado", response.getBody().message());
     }
 
     @Test
     void refreshToken_ShouldReturnNewToken_WhenOldTokenIsValid() throws AuthException {
         // Arrange
         String oldToken = "Bearer oldToken123";
-        when(authService.refreshToken(anyString())).thenReturn("newToken123");
-        when(authService.getUserIdFromToken(anyString())).thenReturn(1L);
-        when(authService.isAdmin(anyString())).thenReturn(false);
-        when(authService.getJwtExpirationMs()).thenReturn(3600000L);
+        when(authService.refreshToken(anyString()))
+            .thenReturn(new TokenIssuance("newToken123", 1L, false, 3600000L));
 
         // Act
         ResponseEntity<ResponseRecord<AuthResponseDTO>> response = 
@@ -146,9 +188,7 @@ class AuthControllerTest {
         assertEquals("newToken123", response.getBody().data().token());
         
         verify(authService).refreshToken("oldToken123");
-        verify(authService).getUserIdFromToken("newToken123");
-        verify(authService).isAdmin("newToken123");
-        verify(authService).getJwtExpirationMs();
+        verify(authService, never()).validateAndParseToken(anyString());
     }
 
     @Test
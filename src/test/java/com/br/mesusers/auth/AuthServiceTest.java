@@ -1,7 +1,9 @@
 package com.br.mesusers.auth;
 
+import com.br.mesusers.user.RegisteredEmailFilter;
 import com.br.mesusers.user.UserEntity;
 import com.br.mesusers.user.UserRepository;
+import com.br.mesusers.user.UserSnapshotCache;
 import com.br.mesusers.user.UserResponseDTO;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
@@ -20,6 +22,7 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -36,6 +39,7 @@ class AuthServiceTest {
     private PasswordEncoder passwordEncoder;
 
     private AuthService authService;
+    private RegisteredEmailFilter registeredEmailFilter;
 
     private final String secretKey = "1234567890123456789012345678901234567890123456789012345678901234";
     private SecretKey jwtSecretKey;
@@ -46,7 +50,10 @@ class AuthServiceTest {
     void setUp() {
         jwtSecretKey = Keys.hmacShaKeyFor(secretKey.getBytes());
         // Criando a instância manualmente com a secretKey
-        authService = new AuthService(userRepository, passwordEncoder, secretKey);
+        registeredEmailFilter = new RegisteredEmailFilter(userRepository);
+        authService = new AuthService(userRepository, new UserSnapshotCache(userRepository),
+                registeredEmailFilter, passwordEncoder,
+                new TokenDenylist(), secretKey);
 
         userEntity = new UserEntity();
         userEntity.setId(1L);
@@ -65,10 +72,14 @@ class AuthServiceTest {
         when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
 
         // Act
-        String token = authService.authenticate(loginRequestDTO);
+        TokenIssuance issuance = authService.authenticate(loginRequestDTO);
 
         // Assert
-        assertNotNull(token);
+        assertNotNull(issuance.token());
+        assertEquals(1L, issuance.userId());
+        assertFalse(issuance.admin());
+        assertEquals(authService.getJwtExpirationMs(), issuance.expiresInMs());
+        assertEquals(1L, authService.getUserIdFromToken(issuance.token()));
         verify(userRepository).findByEmail("joao@gmail.com");
         verify(passwordEncoder).matches("senha1234", "encodedPassword");
     }
@@ -103,6 +114,23 @@ class AuthServiceTest {
         verify(passwordEncoder).matches("senha1234", "encodedPassword");
     }
 
+    @Test
+    void authenticate_ShouldSkipLookup_WhenEmailIsDefinitelyNotRegistered() {
+        // Arrange
+        when(userRepository.count()).thenReturn(1L);
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of("maria@gmail.com"));
+        registeredEmailFilter.rebuild();
+
+        // Act & Assert
+        AuthException exception = assertThrows(AuthException.class, () -> {
+            authService.authenticate(loginRequestDTO);
+        });
+
+        assertEquals("Usuário não encontrado", exception.getMessage());
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+    }
+
     @Test
     void refreshToken_ShouldReturnNewToken_WhenTokenIsValid() throws AuthException {
         // Arrange
@@ -110,10 +138,12 @@ class AuthServiceTest {
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(userEntity));
 
         // Act
-        String newToken = authService.refreshToken(validToken);
+        TokenIssuance issuance = authService.refreshToken(validToken);
 
         // Assert
-        assertNotNull(newToken);
+        assertNotNull(issuance.token());
+        assertNotEquals(validToken, issuance.token());
+        assertEquals(1L, issuance.userId());
         verify(userRepository).findByEmail("joao@gmail.com");
     }
 
@@ -158,6 +188,37 @@ class AuthServiceTest {
         assertEquals("Token expirado", exception.getMessage());
     }
 
+    @Test
+    void validateToken_ShouldReuseVerifiedClaims_ForSameToken() throws AuthException {
+        // Arrange
+        String validToken = generateValidToken();
+
+        // Act
+        Claims first = authService.validateToken(validToken);
+        Claims second = authService.validateAndParseToken("Bearer " + validToken);
+
+        // Assert
+        assertSame(first, second);
+    }
+
+    @Test
+    void validateToken_ShouldNotCacheTamperedToken() {
+        // Arrange
+        String validToken = generateValidToken();
+        // Troca um caractere do meio da assinatura: o último só carrega 2 bits e nem sempre a altera
+        int position = validToken.length() - 5;
+        char replacement = validToken.charAt(position) == 'A' ? 'B' : 'A';
+        String tamperedToken = validToken.substring(0, position) + replacement + validToken.substring(position + 1);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> authService.validateToken(validToken));
+        AuthException exception = assertThrows(AuthException.class, () -> {
+            authService.validateToken(tamperedToken);
+        });
+
+        assertEquals("Token inválido", exception.getMessage());
+    }
+
     @Test
     void reauthenticate_ShouldReturnUserResponse_WhenTokenIsValid() throws AuthException {
         // Arrange
@@ -174,6 +235,34 @@ class AuthServiceTest {
         assertFalse(response.admin());
     }
 
+    @Test
+    void authenticatedUser_ShouldReuseSnapshot_AndTrustCurrentProfile() throws AuthException {
+        // Arrange
+        userEntity.setAdmin(true);
+        Claims claims = authService.validateAndParseToken(generateValidToken());
+        when(userRepository.findByEmail("joao@gmail.com")).thenReturn(Optional.of(userEntity));
+
+        // Act
+        AuthenticatedUser first = authService.authenticatedUser(claims);
+        AuthenticatedUser second = authService.authenticatedUser(claims);
+
+        // Assert
+        assertEquals(new AuthenticatedUser(1L, "joao@gmail.com", true), first);
+        assertEquals(first, second);
+        verify(userRepository, times(1)).findByEmail("joao@gmail.com");
+    }
+
+    @Test
+    void authenticatedUser_ShouldThrow_WhenUserNoLongerExists() throws AuthException {
+        // Arrange
+        Claims claims = authService.validateAndParseToken(generateValidToken());
+        when(userRepository.findByEmail("joao@gmail.com")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        AuthException exception = assertThrows(AuthException.class, () -> authService.authenticatedUser(claims));
+        assertEquals("Usuário não encontrado", exception.getMessage());
+    }
+
     @Test
     void getUserIdFromToken_ShouldReturnUserId_WhenTokenIsValid() throws AuthException {
         // Arrange
@@ -248,6 +337,29 @@ class AuthServiceTest {
         assertEquals("joao@gmail.com", claims.getSubject());
     }
 
+    @Test
+    void revoke_ShouldRejectToken_EvenWhenClaimsAreCached() throws AuthException {
+        // Arrange
+        String token = authService.generateJwtToken(userEntity);
+        authService.validateAndParseToken(token);
+        String otherToken = authService.generateJwtToken(userEntity);
+
+        // Act
+        authService.revoke(token);
+
+        // Assert
+        AuthException exception = assertThrows(AuthException.class, () -> authService.validateAndParseToken(token));
+        assertEquals("Token revogado", exception.getMessage());
+        assertNotNull(authService.validateAndParseToken(otherToken));
+    }
+
+    @Test
+    void revoke_ShouldReject_TokensWithoutId() {
+        // Act & Assert
+        AuthException exception = assertThrows(AuthException.class, () -> authService.revoke(generateValidToken()));
+        assertEquals("Token sem identificador não pode ser revogado", exception.getMessage());
+    }
+
     private String generateValidToken() {
         return Jwts.builder()
                 .subject("joao@gmail.com")
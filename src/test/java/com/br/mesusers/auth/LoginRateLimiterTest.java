@@ -0,0 +1,116 @@
+package com.br.mesusers.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final LoginRateLimiter limiter = new LoginRateLimiter(3, 10, now::get);
+
+    @Test
+    void tryAcquire_ShouldAllowBurst_ThenRejectSameEmail() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("joao@gmail.com", "10.0.0.1"));
+        }
+
+        long waitMs = limiter.tryAcquire("JOAO@gmail.com ", "10.0.0.2");
+
+        assertEquals(TimeUnit.SECONDS.toMillis(20), waitMs);
+        assertEquals(0, limiter.tryAcquire("maria@gmail.com", "10.0.0.1"));
+    }
+
+    @Test
+    void tryAcquire_ShouldRefill_AfterInterval() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("joao@gmail.com", "10.0.0.1");
+        }
+        assertTrue(limiter.tryAcquire("joao@gmail.com", "10.0.0.1") > 0);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(20));
+
+        assertEquals(0, limiter.tryAcquire("joao@gmail.com", "10.0.0.1"));
+    }
+
+    @Test
+    void tryAcquire_ShouldLimitAddress_AcrossEmails() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.tryAcquire("user" + i + "@gmail.com", "10.0.0.1"));
+        }
+
+        assertTrue(limiter.tryAcquire("outro@gmail.com", "10.0.0.1") > 0);
+        assertEquals(0, limiter.tryAcquire("outro@gmail.com", "10.0.0.2"));
+    }
+
+    @Test
+    void recordFailure_ShouldBackOffProgressively_UntilSuccess() {
+        limiter.tryAcquire("joao@gmail.com", "10.0.0.1");
+        limiter.recordFailure("joao@gmail.com");
+        limiter.recordFailure("joao@gmail.com");
+        limiter.recordFailure("joao@gmail.com");
+
+        // 1 tentativa + penalidades de 1, 2 e 4 intervalos: TAT 8 intervalos à frente, tolerância de 2
+        assertEquals(TimeUnit.SECONDS.toMillis(120), limiter.tryAcquire("joao@gmail.com", "10.0.0.1"));
+
+        limiter.recordSuccess("joao@gmail.com");
+        now.addAndGet(TimeUnit.SECONDS.toNanos(120));
+        assertEquals(0, limiter.tryAcquire("joao@gmail.com", "10.0.0.1"));
+        // Sequência zerada: a próxima falha custa só um intervalo, não oito
+        limiter.recordFailure("joao@gmail.com");
+        assertEquals(TimeUnit.SECONDS.toMillis(40), limiter.tryAcquire("joao@gmail.com", "10.0.0.1"));
+    }
+
+    @Test
+    void recordFailure_ShouldRestartSequence_AfterPenaltyExpires() {
+        for (int i = 0; i < 8; i++) {
+            limiter.recordFailure("joao@gmail.com");
+        }
+        now.addAndGet(TimeUnit.HOURS.toNanos(2));
+
+        limiter.recordFailure("joao@gmail.com");
+
+        // Sem o decaimento a falha custaria 64 intervalos; a sequência recomeçou em um
+        assertEquals(0, limiter.tryAcquire("joao@gmail.com", "10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("joao@gmail.com", "10.0.0.1"));
+        assertEquals(TimeUnit.SECONDS.toMillis(20), limiter.tryAcquire("joao@gmail.com", "10.0.0.1"));
+    }
+
+    @Test
+    void recordFailure_ShouldNotLockOutEmail_SharingOnlyOneStripe() {
+        String noisy = "joao@gmail.com";
+        String innocent = collidingOnFirstStripeOnly(noisy);
+        for (int i = 0; i < 8; i++) {
+            limiter.recordFailure(noisy);
+        }
+
+        assertTrue(limiter.tryAcquire(noisy, "10.0.0.1") > 0);
+        assertEquals(0, limiter.tryAcquire(innocent, "10.0.0.2"));
+    }
+
+    @Test
+    void recordFailure_ShouldShareLimit_BetweenEmailsWithSameHashCode() {
+        // "a~" e "b_" têm o mesmo hashCode (e sobrevivem à normalização): caem nas mesmas duas posições
+        assertEquals("a~@gmail.com".hashCode(), "b_@gmail.com".hashCode());
+        for (int i = 0; i < 8; i++) {
+            limiter.recordFailure("a~@gmail.com");
+        }
+
+        assertTrue(limiter.tryAcquire("b_@gmail.com", "10.0.0.1") > 0);
+    }
+
+    private static String collidingOnFirstStripeOnly(String email) {
+        int h = email.hashCode();
+        for (int i = 0;; i++) {
+            String candidate = "user" + i + "@gmail.com";
+            int c = candidate.hashCode();
+            if (LoginRateLimiter.firstStripe(c) == LoginRateLimiter.firstStripe(h)
+                    && LoginRateLimiter.secondStripe(c) != LoginRateLimiter.secondStripe(h)) {
+                return candidate;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.br.mesusers.config;
+
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.br.mesusers.config.SchemaInitializer.IndexDefinition;
+
+class SchemaInitializerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SchemaInitializer initializer = new SchemaInitializer(jdbcTemplate);
+    private final IndexDefinition index = new IndexDefinition("users_email_lower_idx",
+            "users (lower(email) text_pattern_ops)");
+
+    @Test
+    void createIndex_ShouldDropAndRebuild_WhenPreviousBuildLeftIndexInvalid() {
+        when(jdbcTemplate.queryForList(SchemaInitializer.INVALID_INDEX, Boolean.class, "users_email_lower_idx"))
+                .thenReturn(List.of(true));
+
+        initializer.createIndex(index);
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("DROP INDEX CONCURRENTLY IF EXISTS users_email_lower_idx");
+        order.verify(jdbcTemplate).execute(
+                "CREATE INDEX CONCURRENTLY IF NOT EXISTS users_email_lower_idx ON users (lower(email) text_pattern_ops)");
+    }
+
+    @Test
+    void createIndex_ShouldKeepValidOrMissingIndex() {
+        when(jdbcTemplate.queryForList(SchemaInitializer.INVALID_INDEX, Boolean.class, "users_email_lower_idx"))
+                .thenReturn(List.of(false), List.of());
+
+        initializer.createIndex(index);
+        initializer.createIndex(index);
+
+        verify(jdbcTemplate, never()).execute(startsWith("DROP INDEX"));
+    }
+}
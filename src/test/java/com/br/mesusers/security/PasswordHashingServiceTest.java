@@ -0,0 +1,115 @@
+package com.br.mesusers.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private PasswordHashingService service;
+    private ExecutorService callers;
+
+    private final PasswordEncoder blockingEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("hash:" + rawPassword);
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.destroy();
+        if (callers != null) {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void encodeAndMatches_ShouldDelegateToEncoder() {
+        release.countDown();
+        service = new PasswordHashingService(blockingEncoder, 1, 1, 1_000);
+
+        String hash = service.encode("senha1234");
+
+        assertEquals("hash:senha1234", hash);
+        assertTrue(service.matches("senha1234", hash));
+        assertFalse(service.matches("outra", hash));
+    }
+
+    @Test
+    void encode_ShouldFailFast_WhenQueueIsFull() throws InterruptedException {
+        service = new PasswordHashingService(blockingEncoder, 1, 1, 10_000);
+        callers = Executors.newFixedThreadPool(2);
+        callers.submit(() -> service.encode("ocupa-a-thread"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        callers.submit(() -> service.encode("ocupa-a-fila"));
+        while (service.stats().queued() < 1) {
+            Thread.onSpinWait();
+        }
+
+        PasswordHashingUnavailableException exception = assertThrows(
+                PasswordHashingUnavailableException.class, () -> service.encode("recusada"));
+
+        assertEquals("Serviço de senhas sobrecarregado, tente novamente", exception.getMessage());
+        assertEquals(1, service.stats().rejected());
+    }
+
+    @Test
+    void encodeAll_ShouldKeepOrder_AndRunOverflowOnCaller() {
+        release.countDown();
+        service = new PasswordHashingService(blockingEncoder, 2, 1, 1_000);
+        List<String> raw = IntStream.range(0, 50).mapToObj(i -> "senha" + i).toList();
+
+        List<String> hashes = service.encodeAll(raw);
+
+        assertEquals(raw.stream().map(password -> "hash:" + password).toList(), hashes);
+        assertEquals(50, service.stats().hashes());
+    }
+
+    @Test
+    void encodeAll_ShouldLeaveOneThreadFree_ForInteractiveCalls() throws Exception {
+        service = new PasswordHashingService(blockingEncoder, 2, 8, 1_000);
+        callers = Executors.newSingleThreadExecutor();
+        var bulk = callers.submit(() -> service.encodeAll(List.of("lote1", "lote2", "lote3")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Sem a reserva, o lote ocuparia as duas threads e a chamada esgotaria o timeout
+        assertTrue(service.matches("senha1234", "hash:senha1234"));
+
+        release.countDown();
+        assertEquals(List.of("hash:lote1", "hash:lote2", "hash:lote3"), bulk.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void encode_ShouldTimeOut_WhenHashTakesTooLong() {
+        service = new PasswordHashingService(blockingEncoder, 1, 1, 50);
+
+        PasswordHashingUnavailableException exception = assertThrows(
+                PasswordHashingUnavailableException.class, () -> service.encode("lenta"));
+
+        assertEquals("Tempo esgotado no processamento da senha", exception.getMessage());
+    }
+}
@@ -0,0 +1,87 @@
+package com.br.mesusers.shared.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringCacheTest {
+
+    private AtomicLong now;
+    private ExpiringCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000);
+        cache = new ExpiringCache<>(2, now::get);
+    }
+
+    @Test
+    void get_ShouldReturnValue_UntilItExpires() {
+        cache.put("a", "valor", 2_000);
+
+        assertEquals("valor", cache.get("a"));
+        now.set(2_000);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_ShouldEvictLeastRecentlyUsed_WhenFull() {
+        cache.put("a", "1", 5_000);
+        cache.put("b", "2", 5_000);
+        cache.get("a");
+        cache.put("c", "3", 5_000);
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void put_ShouldEvictOldestBatch_AndPreferExpiredEntries() {
+        ExpiringCache<Integer, String> large = new ExpiringCache<>(10, now::get);
+        for (int i = 0; i < 10; i++) {
+            large.put(i, "v" + i, 5_000);
+        }
+        large.get(0);
+        large.put(10, "v10", 5_000);
+
+        // Passou do limite por 1; sai também a folga de 10% (1 entrada): as duas menos usadas
+        assertEquals(9, large.size());
+        assertEquals("v0", large.get(0));
+        assertNull(large.get(1));
+        assertNull(large.get(2));
+        assertEquals(2, large.stats().evictions());
+
+        large.put(20, "curta", 1_500);
+        now.set(1_500);
+        large.put(21, "v21", 5_000);
+
+        // A vencida basta para voltar ao limite: nenhuma entrada válida sai
+        assertEquals(10, large.size());
+        assertEquals("v3", large.get(3));
+        assertEquals(2, large.stats().evictions());
+    }
+
+    @Test
+    void put_ShouldIgnoreAlreadyExpiredEntries() {
+        cache.put("a", "1", 500);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void stats_ShouldCountHitsAndMisses() {
+        cache.put("a", "1", 5_000);
+        cache.get("a");
+        cache.get("x");
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+    }
+}
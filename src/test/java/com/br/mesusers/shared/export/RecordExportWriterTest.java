@@ -0,0 +1,63 @@
+package com.br.mesusers.shared.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.br.mesusers.address.AddressResponseDTO;
+import com.br.mesusers.user.UserResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordExportWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void write_ShouldEmitOneJsonObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RecordExportWriter<UserResponseDTO> writer = new RecordExportWriter<>(UserResponseDTO.class,
+                ExportFormat.NDJSON, out, objectMapper);
+
+        writer.write(new UserResponseDTO(1L, "joao", "joao@gmail.com", false));
+        writer.write(new UserResponseDTO(2L, "maria", "maria@gmail.com", true));
+        writer.finish();
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("maria@gmail.com", objectMapper.readTree(lines[1]).get("email").asText());
+    }
+
+    @Test
+    void write_ShouldFlattenNestedRecordsAndQuoteCsvValues() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RecordExportWriter<AddressResponseDTO> writer = new RecordExportWriter<>(AddressResponseDTO.class,
+                ExportFormat.CSV, out, objectMapper);
+
+        writer.write(new AddressResponseDTO(7L, "Rua \"A\", 1", "10", null, "Centro", "São Paulo", "SP", "01001000",
+                new UserResponseDTO(1L, "joao", "joao@gmail.com", false)));
+        writer.finish();
+
+        assertEquals("id,street,number,complement,neighborhood,city,state,cep,"
+                + "user.id,user.username,user.email,user.admin\n"
+                + "7,\"Rua \"\"A\"\", 1\",10,,Centro,São Paulo,SP,01001000,1,joao,joao@gmail.com,false\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void finish_ShouldWriteCsvHeader_WhenThereAreNoRows() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new RecordExportWriter<>(UserResponseDTO.class, ExportFormat.CSV, out, objectMapper).finish();
+
+        assertEquals("id,username,email,admin\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void parse_ShouldDefaultToNdjson() {
+        assertEquals(ExportFormat.NDJSON, ExportFormat.parse(null));
+        assertEquals(ExportFormat.CSV, ExportFormat.parse(" CSV "));
+    }
+}
@@ -0,0 +1,29 @@
+package com.br.mesusers.shared.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    @Test
+    void noneMatchFails_ShouldUseWeakComparison() {
+        assertTrue(ETags.noneMatchFails("\"1.2\"", "1.2"));
+        assertTrue(ETags.noneMatchFails("W/\"1.2\"", "1.2"));
+        assertTrue(ETags.noneMatchFails("\"0\", \"7\"", "7"));
+        assertTrue(ETags.noneMatchFails("*", "7"));
+        assertFalse(ETags.noneMatchFails("\"6\"", "7"));
+        assertFalse(ETags.noneMatchFails(null, "7"));
+        assertFalse(ETags.noneMatchFails("*", null));
+    }
+
+    @Test
+    void matchSucceeds_ShouldUseStrongComparison() {
+        assertTrue(ETags.matchSucceeds(null, "7"));
+        assertTrue(ETags.matchSucceeds("\"7\"", "7"));
+        assertTrue(ETags.matchSucceeds("*", "7"));
+        assertFalse(ETags.matchSucceeds("W/\"7\"", "7"));
+        assertFalse(ETags.matchSucceeds("\"6\"", "7"));
+        assertFalse(ETags.matchSucceeds("*", null));
+    }
+}
@@ -0,0 +1,32 @@
+package com.br.mesusers.shared.pagination;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedCountTest {
+
+    @Test
+    void get_ShouldReuseValue_UntilTtlExpires() {
+        AtomicLong now = new AtomicLong(1_000);
+        AtomicLong queries = new AtomicLong();
+        CachedCount count = new CachedCount(() -> 100 + queries.getAndIncrement(), 5_000, now::get);
+
+        assertEquals(100, count.get());
+        now.addAndGet(4_999);
+        assertEquals(100, count.get());
+        now.addAndGet(1);
+        assertEquals(101, count.get());
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void parse_ShouldFallBackToExact_WhenValueIsMissingOrUnknown() {
+        assertEquals(CountMode.EXACT, CountMode.parse(null));
+        assertEquals(CountMode.EXACT, CountMode.parse("qualquer"));
+        assertEquals(CountMode.NONE, CountMode.parse("none"));
+        assertEquals(CountMode.ESTIMATED, CountMode.parse(" Estimated "));
+    }
+}
@@ -0,0 +1,85 @@
+package com.br.mesusers.shared.reflection;
+
+import com.br.mesusers.address.AddressEntity;
+import com.br.mesusers.address.AddressRequestDTO;
+import com.br.mesusers.user.UserEntity;
+import com.br.mesusers.user.UserRequestDTO;
+import com.br.mesusers.user.UserResponseDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DTOMapperTest {
+
+    record PartialUserDTO(Long id, String nickname) {
+    }
+
+    @Test
+    void transform_ShouldMapEntityToRecord() {
+        UserEntity userEntity = new UserEntity("joao", "joao@gmail.com", "hash", true);
+        userEntity.setId(1L);
+
+        UserResponseDTO result = DTOMapper.transform(userEntity, UserResponseDTO.class);
+
+        assertEquals(new UserResponseDTO(1L, "joao", "joao@gmail.com", true), result);
+    }
+
+    @Test
+    void transform_ShouldMapRecordToClass_IgnoringUnknownFields() {
+        AddressRequestDTO request = new AddressRequestDTO(
+                "12345678", "123", "Apto 101", "Rua Exemplo", "Centro", "São Paulo", "SP", 1L);
+
+        AddressEntity result = DTOMapper.transform(request, AddressEntity.class);
+
+        assertEquals("12345678", result.getCep());
+        assertEquals("Rua Exemplo", result.getStreet());
+        assertEquals("SP", result.getState());
+        assertNull(result.getUser());
+    }
+
+    @Test
+    void transform_ShouldReuseCompiledPlan_AcrossCalls() {
+        UserRequestDTO first = new UserRequestDTO("joao", "joao@gmail.com", "hash1");
+        UserRequestDTO second = new UserRequestDTO("maria", "maria@gmail.com", "hash2");
+
+        UserEntity firstEntity = DTOMapper.transform(first, UserEntity.class);
+        UserEntity secondEntity = DTOMapper.transform(second, UserEntity.class);
+
+        assertEquals("joao", firstEntity.getUsername());
+        assertEquals("maria", secondEntity.getUsername());
+        assertEquals("hash2", secondEntity.getPassword());
+        assertFalse(secondEntity.getAdmin());
+    }
+
+    @Test
+    void transform_ShouldFail_WhenRecordComponentHasNoSourceField() {
+        UserEntity userEntity = new UserEntity("joao", "joao@gmail.com", "hash", false);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> DTOMapper.transform(userEntity, PartialUserDTO.class));
+
+        assertEquals("Falha no mapeamento DTO para PartialUserDTO", exception.getMessage());
+    }
+
+    @Test
+    void generatedMappers_ShouldBeRegistered_ForAnnotatedPairs() {
+        Set<String> pairs = ServiceLoader.load(GeneratedMapper.class).stream()
+                .map(ServiceLoader.Provider::get)
+                .map(mapper -> mapper.sourceType().getSimpleName() + "->" + mapper.targetType().getSimpleName())
+                .collect(Collectors.toSet());
+
+        assertEquals(Set.of(
+                "UserRequestDTO->UserEntity",
+                "UserEntity->UserResponseDTO",
+                "AddressRequestDTO->AddressEntity"), pairs);
+    }
+
+    @Test
+    void transform_ShouldReturnNull_WhenSourceIsNull() {
+        assertNull(DTOMapper.transform(null, UserResponseDTO.class));
+    }
+}
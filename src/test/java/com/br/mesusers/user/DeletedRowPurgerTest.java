@@ -0,0 +1,51 @@
+package com.br.mesusers.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DeletedRowPurgerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final DeletedRowPurger purger = new DeletedRowPurger(jdbcTemplate, 100, 3);
+
+    @Test
+    void purge_ShouldDeleteAddressesBeforeUsers_UntilBatchComesBackShort() {
+        when(jdbcTemplate.update(DeletedRowPurger.PURGE_ADDRESSES, 100)).thenReturn(100, 40);
+        when(jdbcTemplate.update(DeletedRowPurger.PURGE_USERS, 100)).thenReturn(7);
+        when(jdbcTemplate.queryForObject(DeletedRowPurger.COUNT_ADDRESSES, Long.class)).thenReturn(0L);
+        when(jdbcTemplate.queryForObject(DeletedRowPurger.COUNT_USERS, Long.class)).thenReturn(0L);
+
+        purger.purge();
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate, times(2)).update(DeletedRowPurger.PURGE_ADDRESSES, 100);
+        order.verify(jdbcTemplate).update(DeletedRowPurger.PURGE_USERS, 100);
+    }
+
+    @Test
+    void purge_ShouldStopAtMaxBatches_AndReportBacklog() {
+        when(jdbcTemplate.update(DeletedRowPurger.PURGE_ADDRESSES, 100)).thenReturn(100);
+        when(jdbcTemplate.update(DeletedRowPurger.PURGE_USERS, 100)).thenReturn(0);
+        when(jdbcTemplate.queryForObject(DeletedRowPurger.COUNT_ADDRESSES, Long.class)).thenReturn(250L);
+        when(jdbcTemplate.queryForObject(DeletedRowPurger.COUNT_USERS, Long.class)).thenReturn(12L);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        purger.bindTo(registry);
+
+        purger.purge();
+
+        verify(jdbcTemplate, times(3)).update(DeletedRowPurger.PURGE_ADDRESSES, 100);
+        assertEquals(250, registry.get("users.purge.backlog").tag("table", "addresses").gauge().value());
+        assertEquals(12, registry.get("users.purge.backlog").tag("table", "users").gauge().value());
+        assertEquals(300, registry.get("users.purge.removed").tag("table", "addresses").functionCounter().count());
+    }
+}
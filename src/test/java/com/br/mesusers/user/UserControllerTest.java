@@ -1,11 +1,16 @@
 package com.br.mesusers.user;
 
-import com.br.mesusers.auth.AuthService;
+import com.br.mesusers.auth.AuthenticatedUser;
+import com.br.mesusers.shared.export.ExportFormat;
+import com.br.mesusers.shared.http.PreconditionFailedException;
+import com.br.mesusers.shared.pagination.InvalidCursorException;
+import com.br.mesusers.shared.records.BulkOperationResult;
+import com.br.mesusers.shared.records.CursorPaginatedResponse;
 import com.br.mesusers.shared.records.PaginatedResponse;
 import com.br.mesusers.shared.records.ResponseRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 
-import jakarta.security.auth.message.AuthException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -14,14 +19,20 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -31,14 +42,14 @@ class UserControllerTest {
     private UserService userService;
 
     @Mock
-    private AuthService authService;
+    private UserExportService userExportService;
 
     @InjectMocks
     private UserController userController;
 
     private UserRequestDTO userRequestDTO;
     private UserResponseDTO userResponseDTO;
-    private UserEntity userEntity;
+    private AuthenticatedUser currentUser;
 
     @BeforeEach
     void setUp() {
@@ -46,9 +57,7 @@ class UserControllerTest {
         
         userRequestDTO = new UserRequestDTO(null, "João da Silva", "joao@gmail.com", "password123", false);
         userResponseDTO = new UserResponseDTO(1L, "João da Silva", "joao@gmail.com", false);
-        userEntity = new UserEntity();
-        userEntity.setId(1L);
-        userEntity.setAdmin(false);
+        currentUser = new AuthenticatedUser(1L, "joao@gmail.com", false);
     }
 
     @Test
@@ -75,17 +84,178 @@ class UserControllerTest {
         assertEquals("User creation failed", response.getBody().message());
     }
 
+    @Test
+    void emailAvailability_ShouldReportAvailability() {
+        when(userService.isEmailAvailable("novo@gmail.com")).thenReturn(true);
+
+        ResponseEntity<ResponseRecord<EmailAvailabilityDTO>> response =
+                userController.emailAvailability("novo@gmail.com");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new EmailAvailabilityDTO("novo@gmail.com", true), response.getBody().data());
+    }
+
+    @Test
+    void exportUsers_ShouldReturnForbidden_WhenNotAdmin() {
+        ResponseEntity<StreamingResponseBody> response = userController.exportUsers(currentUser, "csv");
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(userExportService);
+    }
+
+    @Test
+    void exportUsers_ShouldStreamRequestedFormat_WhenAdmin() throws Exception {
+        AuthenticatedUser adminUser = new AuthenticatedUser(2L, "admin@gmail.com", true);
+
+        ResponseEntity<StreamingResponseBody> response = userController.exportUsers(adminUser, "csv");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.parseMediaType("text/csv"), response.getHeaders().getContentType());
+        assertEquals("attachment; filename=\"users.csv\"",
+                response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        verify(userExportService).export(out, ExportFormat.CSV);
+    }
+
+    @Test
+    void search_ShouldReturnForbidden_WhenNotAdmin() {
+        ResponseEntity<ResponseRecord<CursorPaginatedResponse<UserResponseDTO>>> response =
+                userController.search(currentUser, "email", "joao", null, null, 10);
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void search_ShouldReturnBadRequest_WhenFieldIsNotSearchable() {
+        AuthenticatedUser adminUser = new AuthenticatedUser(2L, "admin@gmail.com", true);
+
+        ResponseEntity<ResponseRecord<CursorPaginatedResponse<UserResponseDTO>>> response =
+                userController.search(adminUser, "password", "x", null, null, 10);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Campo de busca inválido: password", response.getBody().message());
+    }
+
+    @Test
+    void getAllAfter_ShouldReturnCursorPage() {
+        CursorPaginatedResponse<UserResponseDTO> page = new CursorPaginatedResponse<>(
+                List.of(userResponseDTO), 1, true, "aWQ6MQ");
+        when(userService.findAfter("", 1)).thenReturn(page);
+
+        ResponseEntity<ResponseRecord<CursorPaginatedResponse<UserResponseDTO>>> response =
+                userController.getAllAfter("", 1);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody().data());
+    }
+
+    @Test
+    void getAllAfter_ShouldReturnBadRequest_WhenCursorIsInvalid() {
+        when(userService.findAfter("lixo", 10)).thenThrow(new InvalidCursorException("Cursor inválido"));
+
+        ResponseEntity<ResponseRecord<CursorPaginatedResponse<UserResponseDTO>>> response =
+                userController.getAllAfter("lixo", 10);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Cursor inválido", response.getBody().message());
+    }
+
     @Test
     void getUserById_ShouldReturnUser_WhenIdExists() {
         when(userService.findById(anyLong())).thenReturn(userResponseDTO);
 
-        ResponseEntity<ResponseRecord<UserResponseDTO>> response = userController.getById(1L);
+        ResponseEntity<ResponseRecord<UserResponseDTO>> response = userController.getById(1L, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().success());
         assertEquals(userResponseDTO, response.getBody().data());
     }
 
+    @Test
+    void getUserById_ShouldReturnNotModified_WhenETagMatches() {
+        when(userService.findVersionTag(1L)).thenReturn("3");
+
+        ResponseEntity<ResponseRecord<UserResponseDTO>> response = userController.getById(1L, "W/\"2\", \"3\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        verify(userService, never()).findById(anyLong());
+    }
+
+    @Test
+    void updateUser_ShouldReturnPreconditionFailed_WhenIfMatchIsStale() {
+        when(userService.update(1L, userRequestDTO, "\"3\"")).thenThrow(new PreconditionFailedException());
+
+        ResponseEntity<ResponseRecord<UserResponseDTO>> response =
+                userController.update(1L, currentUser, userRequestDTO, "\"3\"");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+    }
+
+    @Test
+    void patchUser_ShouldReturnPreconditionFailed_WhenVersionChangesBeforeCommit() throws Exception {
+        when(userService.patch(anyLong(), any(), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(UserEntity.class, 1L));
+
+        ResponseEntity<ResponseRecord<UserResponseDTO>> response = userController.patch(1L, currentUser,
+                new ObjectMapper().readTree("{\"username\": \"joao\"}"), "\"3\"");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+    }
+
+    @Test
+    void patchUser_ShouldReturnForbidden_WhenNonAdminTouchesAdminFlag() throws Exception {
+        ResponseEntity<ResponseRecord<UserResponseDTO>> response = userController.patch(1L, currentUser,
+                new ObjectMapper().readTree("{\"admin\": true}"), null);
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(userService, never()).patch(anyLong(), any(), any());
+    }
+
+    @Test
+    void patchUser_ShouldReturnBadRequest_WhenPatchIsInvalid() throws Exception {
+        when(userService.patch(anyLong(), any(), any())).thenThrow(new IllegalArgumentException("Campo não suportado: id"));
+
+        ResponseEntity<ResponseRecord<UserResponseDTO>> response = userController.patch(1L, currentUser,
+                new ObjectMapper().readTree("{\"id\": 2}"), null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Campo não suportado: id", response.getBody().message());
+    }
+
+    @Test
+    void deleteAll_ShouldReturnForbidden_WhenNotAdmin() {
+        ResponseEntity<ResponseRecord<BulkOperationResult>> response =
+                userController.deleteAll(currentUser, new UserBulkRequestDTO(List.of(2L), null));
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void deleteAll_ShouldReportRequestedAndAffectedCounts() {
+        AuthenticatedUser adminUser = new AuthenticatedUser(2L, "admin@gmail.com", true);
+        when(userService.deleteAll(List.of(3L, 4L))).thenReturn(1);
+
+        ResponseEntity<ResponseRecord<BulkOperationResult>> response =
+                userController.deleteAll(adminUser, new UserBulkRequestDTO(List.of(3L, 4L, 3L), null));
+
+        assertEquals(new BulkOperationResult(2, 1), response.getBody().data());
+    }
+
+    @Test
+    void updateAdmin_ShouldRejectSelfDemotion() {
+        AuthenticatedUser adminUser = new AuthenticatedUser(2L, "admin@gmail.com", true);
+
+        ResponseEntity<ResponseRecord<BulkOperationResult>> response =
+                userController.updateAdmin(adminUser, new UserBulkRequestDTO(List.of(2L, 3L), false));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(userService, never()).updateAdmin(any(), anyBoolean());
+    }
+
     @Test
     void getAllUsers_ShouldReturnPaginatedResponse() {
         List<UserResponseDTO> users = Collections.singletonList(userResponseDTO);
@@ -94,7 +264,7 @@ class UserControllerTest {
         when(userService.findAll(anyInt(), anyInt())).thenReturn(page);
 
         ResponseEntity<ResponseRecord<PaginatedResponse<UserResponseDTO>>> response = 
-            userController.getAll("token", 1, 10);
+            userController.getAll("token", 1, 10, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().success());
@@ -104,12 +274,11 @@ class UserControllerTest {
     }
 
     @Test
-    void updateUser_ShouldReturnUpdatedUser_WhenAuthorized() throws AuthException {
-        when(authService.getCurrentUser(anyString())).thenReturn(userEntity);
-        when(userService.update(anyLong(), any(UserRequestDTO.class))).thenReturn(userResponseDTO);
+    void updateUser_ShouldReturnUpdatedUser_WhenAuthorized() {
+        when(userService.update(anyLong(), any(UserRequestDTO.class), any())).thenReturn(userResponseDTO);
 
         ResponseEntity<ResponseRecord<UserResponseDTO>> response = 
-            userController.update(1L, "token", userRequestDTO);
+            userController.update(1L, currentUser, userRequestDTO, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().success());
@@ -118,15 +287,11 @@ class UserControllerTest {
     }
 
     @Test
-    void updateUser_ShouldReturnForbidden_WhenNotAuthorized() throws AuthException {
-        UserEntity anotherUser = new UserEntity();
-        anotherUser.setId(2L);
-        anotherUser.setAdmin(false);
-        
-        when(authService.getCurrentUser(anyString())).thenReturn(anotherUser);
+    void updateUser_ShouldReturnForbidden_WhenNotAuthorized() {
+        AuthenticatedUser anotherUser = new AuthenticatedUser(2L, "maria@gmail.com", false);
 
         ResponseEntity<ResponseRecord<UserResponseDTO>> response = 
-            userController.update(1L, "token", userRequestDTO);
+            userController.update(1L, anotherUser, userRequestDTO, null);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
         assertEquals(403, response.getBody().statusCode());
@@ -134,28 +299,23 @@ class UserControllerTest {
     }
 
     @Test
-    void updateUser_ShouldAllowAdminToUpdateAnyUser() throws AuthException {
-        UserEntity adminUser = new UserEntity();
-        adminUser.setId(2L);
-        adminUser.setAdmin(true);
-        
-        when(authService.getCurrentUser(anyString())).thenReturn(adminUser);
-        when(userService.update(anyLong(), any(UserRequestDTO.class))).thenReturn(userResponseDTO);
+    void updateUser_ShouldAllowAdminToUpdateAnyUser() {
+        AuthenticatedUser adminUser = new AuthenticatedUser(2L, "admin@gmail.com", true);
+        when(userService.update(anyLong(), any(UserRequestDTO.class), any())).thenReturn(userResponseDTO);
 
         ResponseEntity<ResponseRecord<UserResponseDTO>> response = 
-            userController.update(1L, "token", userRequestDTO);
+            userController.update(1L, adminUser, userRequestDTO, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().success());
     }
 
     @Test
-    void deleteUser_ShouldReturnSuccess_WhenAuthorized() throws AuthException {
-        when(authService.getCurrentUser(anyString())).thenReturn(userEntity);
-        when(userService.delete(anyLong())).thenReturn(userResponseDTO);
+    void deleteUser_ShouldReturnSuccess_WhenAuthorized() {
+        when(userService.delete(anyLong(), any())).thenReturn(userResponseDTO);
 
         ResponseEntity<ResponseRecord<UserResponseDTO>> response = 
-            userController.delete("token", 1L);
+            userController.delete(currentUser, 1L, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().success());
@@ -164,15 +324,11 @@ class UserControllerTest {
     }
 
     @Test
-    void deleteUser_ShouldReturnForbidden_WhenNotAuthorized() throws AuthException {
-        UserEntity anotherUser = new UserEntity();
-        anotherUser.setId(2L);
-        anotherUser.setAdmin(false);
-        
-        when(authService.getCurrentUser(anyString())).thenReturn(anotherUser);
+    void deleteUser_ShouldReturnForbidden_WhenNotAuthorized() {
+        AuthenticatedUser anotherUser = new AuthenticatedUser(2L, "maria@gmail.com", false);
 
         ResponseEntity<ResponseRecord<UserResponseDTO>> response = 
-            userController.delete("token", 1L);
+            userController.delete(anotherUser, 1L, null);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
         assertEquals(403, response.getBody().statusCode());
@@ -180,16 +336,12 @@ class UserControllerTest {
     }
 
     @Test
-    void deleteUser_ShouldAllowAdminToDeleteAnyUser() throws AuthException {
-        UserEntity adminUser = new UserEntity();
-        adminUser.setId(2L);
-        adminUser.setAdmin(true);
-        
-        when(authService.getCurrentUser(anyString())).thenReturn(adminUser);
-        when(userService.delete(anyLong())).thenReturn(userResponseDTO);
+    void deleteUser_ShouldAllowAdminToDeleteAnyUser() {
+        AuthenticatedUser adminUser = new AuthenticatedUser(2L, "admin@gmail.com", true);
+        when(userService.delete(anyLong(), any())).thenReturn(userResponseDTO);
 
         ResponseEntity<ResponseRecord<UserResponseDTO>> response = 
-            userController.delete("token", 1L);
+            userController.delete(adminUser, 1L, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().success());
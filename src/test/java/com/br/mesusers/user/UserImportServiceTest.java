@@ -0,0 +1,168 @@
+package com.br.mesusers.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.br.mesusers.security.PasswordHashingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private RegisteredEmailFilter registeredEmailFilter;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private UserImportService userImportService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importUsers_ShouldBatchValidRows_AndReportRowErrors() throws IOException {
+        String ndjson = """
+                {"username":"joao_silva","email":"Joao@Gmail.com","password":"Senha@123"}
+                {"username":"x","email":"x@gmail.com","password":"Senha@123"}
+                não é json
+
+                {"username":"maria","email":"maria@gmail.com","password":"Senha@123","admin":true}
+                """;
+        when(passwordHashingService.encodeAll(anyList())).thenReturn(List.of("hash1", "hash2"));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1))).thenReturn(List.of(150L));
+        runTransactions();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 1, 0 });
+
+        UserImportResult result = userImportService.importUsers(stream(ndjson), UserImportService.NDJSON);
+
+        assertEquals(4, result.processed());
+        assertEquals(1, result.imported());
+        assertEquals(3, result.failed());
+        assertFalse(result.errorsTruncated());
+        assertEquals(List.of(
+                new UserImportError(2, "x@gmail.com", "O nome de usuário deve ter entre 3 e 50 caracteres"),
+                new UserImportError(3, null, "Linha malformada"),
+                new UserImportError(5, "maria@gmail.com", "Email ou nome de usuário já cadastrado")),
+                result.errors());
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        assertEquals(List.of(101L, "joao_silva", "joao@gmail.com", "hash1", false), List.of(batch.getValue().get(0)));
+        assertEquals(102L, batch.getValue().get(1)[0]);
+        assertEquals(true, batch.getValue().get(1)[4]);
+        verify(registeredEmailFilter).add("joao@gmail.com");
+        verify(registeredEmailFilter, never()).add("maria@gmail.com");
+    }
+
+    @Test
+    void importUsers_ShouldParseCsv_WithQuotedFields() throws IOException {
+        String csv = """
+                email,username,password,admin
+                ana@gmail.com,ana_souza,"Sen,ha@123",false
+                bia@gmail.com,bia
+                """;
+        when(passwordHashingService.encodeAll(List.of("Sen,ha@123"))).thenReturn(List.of("hash"));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1))).thenReturn(List.of(50L));
+        runTransactions();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 1 });
+
+        UserImportResult result = userImportService.importUsers(stream(csv), "text/csv; charset=UTF-8");
+
+        assertEquals(2, result.processed());
+        assertEquals(1, result.imported());
+        assertEquals(List.of(new UserImportError(3, null, "Linha malformada")), result.errors());
+        verify(registeredEmailFilter).add("ana@gmail.com");
+    }
+
+    @Test
+    void importUsers_ShouldRetryRowByRow_WithSameIds_WhenBatchFails() throws IOException {
+        String ndjson = """
+                {"username":"joao_silva","email":"joao@gmail.com","password":"Senha@123"}
+                {"username":"maria","email":"maria@gmail.com","password":"Senha@123"}
+                {"username":"ana_souza","email":"ana@gmail.com","password":"Senha@123"}
+                """;
+        when(passwordHashingService.encodeAll(anyList())).thenReturn(List.of("hash1", "hash2", "hash3"));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1))).thenReturn(List.of(1L), List.of(100L));
+        runTransactions();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataIntegrityViolationException("batch"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            String username = (String) invocation.getArgument(2);
+            if ("maria".equals(username)) {
+                throw new DataIntegrityViolationException("linha");
+            }
+            return "ana_souza".equals(username) ? 0 : 1;
+        });
+
+        UserImportResult result = userImportService.importUsers(stream(ndjson), UserImportService.NDJSON);
+
+        assertEquals(1, result.imported());
+        assertEquals(List.of(
+                new UserImportError(2, "maria@gmail.com", "Falha ao gravar usuário"),
+                new UserImportError(3, "ana@gmail.com", "Email ou nome de usuário já cadastrado")),
+                result.errors());
+        // Um primeiro valor abaixo do bloco só reserva o próprio id; o restante vem do bloco seguinte
+        verify(jdbcTemplate).update(anyString(), eq(1L), eq("joao_silva"), eq("joao@gmail.com"), eq("hash1"), eq(false));
+        verify(jdbcTemplate).update(anyString(), eq(51L), eq("maria"), eq("maria@gmail.com"), eq("hash2"), eq(false));
+        verify(registeredEmailFilter).add("joao@gmail.com");
+    }
+
+    @Test
+    void importUsers_ShouldStop_WhenCsvHeaderIsIncomplete() throws IOException {
+        UserImportResult result = userImportService.importUsers(stream("email,password\na@b.com,x\n"),
+                UserImportService.CSV);
+
+        assertEquals(0, result.processed());
+        assertEquals(1, result.failed());
+        verifyNoInteractions(jdbcTemplate, passwordHashingService);
+    }
+
+    private void runTransactions() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
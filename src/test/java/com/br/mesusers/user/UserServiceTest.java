@@ -1,31 +1,56 @@
 package com.br.mesusers.user;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import com.br.mesusers.address.AddressRepository;
+import com.br.mesusers.security.PasswordHashingService;
+import com.br.mesusers.shared.http.PreconditionFailedException;
+import com.br.mesusers.shared.pagination.CountMode;
+import com.br.mesusers.shared.pagination.Cursors;
+import com.br.mesusers.shared.pagination.KeysetCursor;
+import com.br.mesusers.shared.pagination.InvalidCursorException;
+import com.br.mesusers.shared.records.CursorPaginatedResponse;
+import com.br.mesusers.shared.records.PaginatedResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
 
@@ -35,6 +60,21 @@ class UserServiceTest {
     @Mock
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserSnapshotCache userSnapshotCache;
+
+    @Mock
+    private AddressRepository addressRepository;
+
+    @Mock
+    private RegisteredEmailFilter registeredEmailFilter;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private UserService userService;
 
@@ -84,6 +124,70 @@ class UserServiceTest {
         verify(userRepository).save(any(UserEntity.class));
     }
 
+    @Test
+    void save_ShouldReturnNull_WhenEmailIsTaken() {
+        when(userRepository.existsByEmail("joao@gmail.com")).thenReturn(true);
+        UserResponseDTO result = userService.save(userRequestDTO);
+        assertNull(result);
+        verify(userRepository, never()).save(any());
+        verify(passwordEncoder, never()).encode(anyString());
+    }
+
+    @Test
+    void saveAll_ShouldSkipTakenAndRepeatedEmails_AndSaveInOneCall() {
+        UserRequestDTO joao = new UserRequestDTO("joao", "joao@gmail.com", "Senha@123");
+        UserRequestDTO taken = new UserRequestDTO("maria", "maria@gmail.com", "Senha@123");
+        UserRequestDTO repeated = new UserRequestDTO("joao2", "JOAO@gmail.com", "Senha@123");
+        when(registeredEmailFilter.isDefinitelyAbsent("joao@gmail.com")).thenReturn(true);
+        when(userRepository.findExistingEmails(List.of("maria@gmail.com"))).thenReturn(Set.of("maria@gmail.com"));
+        when(userRepository.findExistingUsernames(List.of("joao"))).thenReturn(Set.of());
+        when(passwordHashingService.encodeAll(List.of("Senha@123"))).thenReturn(List.of("hash"));
+        when(userRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<UserResponseDTO> result = userService.saveAll(List.of(joao, taken, repeated));
+
+        assertEquals(1, result.size());
+        assertEquals("joao@gmail.com", result.get(0).email());
+        verify(registeredEmailFilter).add("joao@gmail.com");
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void saveAll_ShouldSkipTakenAndRepeatedUsernames() {
+        UserRequestDTO joao = new UserRequestDTO("joao", "joao@gmail.com", "Senha@123");
+        UserRequestDTO sameName = new UserRequestDTO("joao", "outro@gmail.com", "Senha@123");
+        UserRequestDTO taken = new UserRequestDTO("maria", "maria@gmail.com", "Senha@123");
+        when(registeredEmailFilter.isDefinitelyAbsent(anyString())).thenReturn(true);
+        when(userRepository.findExistingUsernames(List.of("joao", "maria"))).thenReturn(Set.of("maria"));
+        when(passwordHashingService.encodeAll(List.of("Senha@123"))).thenReturn(List.of("hash"));
+        when(userRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<UserResponseDTO> result = userService.saveAll(List.of(joao, sameName, taken));
+
+        assertEquals(1, result.size());
+        assertEquals("joao", result.get(0).username());
+    }
+
+    @Test
+    void saveAll_ShouldRejectBatch_WhenAnyUserIsInvalid() {
+        UserRequestDTO valid = new UserRequestDTO("joao", "joao@gmail.com", "Senha@123");
+        UserRequestDTO withoutPassword = new UserRequestDTO("maria", "maria@gmail.com", null);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> userService.saveAll(List.of(valid, withoutPassword)));
+
+        assertEquals("Usuário 2: A senha é obrigatória", e.getMessage());
+        verify(passwordHashingService, never()).encodeAll(any());
+        verify(userRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void isEmailAvailable_ShouldNotQuery_WhenFilterRulesEmailOut() {
+        when(registeredEmailFilter.isDefinitelyAbsent("novo@gmail.com")).thenReturn(true);
+        assertTrue(userService.isEmailAvailable(" Novo@gmail.com"));
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
     @Test
     void update_ShouldUpdateExistingUser() {
         UserRequestDTO updateDTO = new UserRequestDTO(
@@ -110,7 +214,7 @@ class UserServiceTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
         when(userRepository.save(any(UserEntity.class))).thenReturn(updatedUser);
 
-        UserResponseDTO result = userService.update(1L, updateDTO);
+        UserResponseDTO result = userService.update(1L, updateDTO, null);
 
         assertNotNull(result);
         assertEquals(1L, result.id());
@@ -127,7 +231,7 @@ class UserServiceTest {
     void update_ShouldReturnNull_WhenUserNotFound() {
 
         when(userRepository.findById(1L)).thenReturn(Optional.empty());
-        UserResponseDTO result = userService.update(1L, userRequestDTO);
+        UserResponseDTO result = userService.update(1L, userRequestDTO, null);
         assertNull(result);
         verify(userRepository).findById(1L);
         verify(userRepository, never()).save(any());
@@ -139,37 +243,267 @@ class UserServiceTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(userEntity));
         when(passwordEncoder.encode(anyString())).thenReturn("newEncryptedPassword");
         when(userRepository.save(any(UserEntity.class))).thenReturn(userEntity);
-        UserResponseDTO result = userService.update(1L, partialUpdateDTO);
+        UserResponseDTO result = userService.update(1L, partialUpdateDTO, null);
         assertNotNull(result);
         assertEquals(userEntity.getUsername(), userEntity.getUsername());
         assertEquals(userEntity.getEmail(), userEntity.getEmail());
         verify(userRepository).save(userEntity);
     }
 
+    @Test
+    void patch_ShouldApplyOnlySuppliedFields_WithoutHashing() throws Exception {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(userEntity));
+        String previousPassword = userEntity.getPassword();
+
+        UserResponseDTO result = userService.patch(1L, new ObjectMapper().readTree("{\"username\": \" joao_novo \"}"), null);
+
+        assertEquals("joao_novo", result.username());
+        assertEquals(previousPassword, userEntity.getPassword());
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(userRepository, never()).save(any());
+        verify(userSnapshotCache).invalidate(1L, userEntity.getEmail());
+    }
+
+    @Test
+    void patch_ShouldHashPassword_OnlyWhenSupplied() throws Exception {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(userEntity));
+        when(passwordEncoder.encode("Nova@Senha1")).thenReturn("novoHash");
+
+        userService.patch(1L, new ObjectMapper().readTree("{\"password\": \"Nova@Senha1\"}"), null);
+
+        assertEquals("novoHash", userEntity.getPassword());
+    }
+
+    @Test
+    void patch_ShouldRejectUnknownAndNullFields() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.patch(1L, mapper.readTree("{\"id\": 2}"), null));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(userEntity));
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.patch(1L, mapper.readTree("{\"email\": null}"), null));
+    }
+
     @Test
     void delete_ShouldDeleteUser_WhenUserExists() {
+        userEntity.setVersion(3L);
         when(userRepository.findById(1L)).thenReturn(Optional.of(userEntity));
-        UserResponseDTO result = userService.delete(1L);
-        assertNotNull(result);
-        verify(userRepository).delete(userEntity);
+        when(userRepository.softDeleteByIdAndVersion(1L, 3L)).thenReturn(1);
+        UserResponseDTO result = userService.delete(1L, "\"3\"");
+        assertEquals(userEntity.getEmail(), result.email());
+        InOrder order = inOrder(addressRepository, userRepository);
+        order.verify(addressRepository).softDeleteByUserIdIn(List.of(1L));
+        order.verify(userRepository).softDeleteByIdAndVersion(1L, 3L);
+        verify(userRepository, never()).delete(any());
+        verify(userSnapshotCache).invalidate(1L, userEntity.getEmail());
     }
 
     @Test
     void delete_ShouldReturnNull_WhenUserDoesNotExist() {
         when(userRepository.findById(1L)).thenReturn(Optional.empty());
-        UserResponseDTO result = userService.delete(1L);
+        UserResponseDTO result = userService.delete(1L, null);
         assertNull(result);
-        verify(userRepository, never()).delete(any());
+        verify(userRepository, never()).softDeleteByIdAndVersion(anyLong(), anyLong());
+        verify(addressRepository, never()).softDeleteByUserIdIn(any());
+    }
+
+    @Test
+    void delete_ShouldRejectStaleIfMatch_WithoutDeleting() {
+        userEntity.setVersion(4L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(userEntity));
+
+        assertThrows(PreconditionFailedException.class, () -> userService.delete(1L, "\"3\""));
+
+        verify(addressRepository, never()).softDeleteByUserIdIn(any());
+        verify(userRepository, never()).softDeleteByIdAndVersion(anyLong(), anyLong());
+    }
+
+    @Test
+    void delete_ShouldFail_WhenVersionChangesBeforeUpdate() {
+        userEntity.setVersion(3L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(userEntity));
+        when(userRepository.softDeleteByIdAndVersion(1L, 3L)).thenReturn(0);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> userService.delete(1L, null));
+        verify(userSnapshotCache, never()).invalidate(anyLong(), anyString());
+    }
+
+    @Test
+    void patch_ShouldApplyDtoConstraints_ToSuppliedFields() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(userEntity));
+
+        IllegalArgumentException blank = assertThrows(IllegalArgumentException.class,
+                () -> userService.patch(1L, mapper.readTree("{\"username\": \"  \"}"), null));
+        IllegalArgumentException email = assertThrows(IllegalArgumentException.class,
+                () -> userService.patch(1L, mapper.readTree("{\"email\": \"joao@@gmail\"}"), null));
+
+        assertEquals("O nome de usuário é obrigatório", blank.getMessage());
+        assertEquals("O email deve ser válido", email.getMessage());
+    }
+
+    @Test
+    void patch_ShouldRejectStaleIfMatch_BeforeChangingAnything() throws Exception {
+        userEntity.setVersion(4L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(userEntity));
+        String previousUsername = userEntity.getUsername();
+
+        assertThrows(PreconditionFailedException.class, () -> userService.patch(1L,
+                new ObjectMapper().readTree("{\"username\": \"joao_novo\"}"), "\"3\""));
+
+        assertEquals(previousUsername, userEntity.getUsername());
+    }
+
+    @Test
+    void deleteAll_ShouldRemoveAddressesFirst_AndInvalidateCache() {
+        when(userRepository.softDeleteByIdIn(List.of(1L, 2L))).thenReturn(2);
+
+        assertEquals(2, userService.deleteAll(List.of(1L, 2L)));
+
+        InOrder order = inOrder(addressRepository, userRepository);
+        order.verify(addressRepository).softDeleteByUserIdIn(List.of(1L, 2L));
+        order.verify(userRepository).softDeleteByIdIn(List.of(1L, 2L));
+        verify(userSnapshotCache).invalidateAll();
+    }
+
+    @Test
+    void updateAdmin_ShouldSkipInvalidation_WhenNothingChanged() {
+        when(userRepository.updateAdminByIdIn(List.of(1L), true)).thenReturn(0);
+
+        assertEquals(0, userService.updateAdmin(List.of(1L), true));
+
+        verify(userSnapshotCache, never()).invalidateAll();
+    }
+
+    @Test
+    void findById_ShouldReturnProjection_WithoutLoadingEntity() {
+        when(userRepository.findResponseById(1L)).thenReturn(Optional.of(userResponseDTO));
+        UserResponseDTO result = userService.findById(1L);
+        assertEquals(userResponseDTO, result);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void findById_ShouldReturnNull_WhenUserDoesNotExist() {
+        when(userRepository.findResponseById(1L)).thenReturn(Optional.empty());
+        assertNull(userService.findById(1L));
     }
 
     @Test
     void findAll_ShouldReturnPaginatedUsers() {
-        Page<UserEntity> userPage = new PageImpl<>(Collections.singletonList(userEntity), PageRequest.of(0, 10), 1);
-        when(userRepository.findAll(PageRequest.of(0, 10))).thenReturn(userPage);
+        Page<UserResponseDTO> userPage = new PageImpl<>(Collections.singletonList(userResponseDTO),
+                PageRequest.of(0, 10), 1);
+        when(userRepository.findAllResponses(PageRequest.of(0, 10))).thenReturn(userPage);
         Page<UserResponseDTO> result = userService.findAll(1, 10);
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(userRepository).findAll(PageRequest.of(0, 10));
+        verify(userRepository).findAllResponses(PageRequest.of(0, 10));
+        verify(userRepository, never()).findAll(any(PageRequest.class));
+    }
+
+    @Test
+    void findSlice_ShouldSkipCount_WhenCountModeIsNone() {
+        when(userRepository.findResponseSlice(PageRequest.of(0, 10)))
+                .thenReturn(new SliceImpl<>(List.of(userResponseDTO), PageRequest.of(0, 10), true));
+
+        PaginatedResponse<UserResponseDTO> result = userService.findSlice(1, 10, CountMode.NONE);
+
+        assertEquals(1, result.items().size());
+        assertTrue(result.hasNext());
+        assertNull(result.totalCount());
+        assertNull(result.totalPages());
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void findSlice_ShouldUseCachedEstimate_WhenCountModeIsEstimated() {
+        when(userRepository.findResponseSlice(PageRequest.of(1, 10)))
+                .thenReturn(new SliceImpl<>(List.of(userResponseDTO), PageRequest.of(1, 10), false));
+        when(userRepository.estimateCount()).thenReturn(-1L);
+        when(userRepository.count()).thenReturn(11L);
+
+        PaginatedResponse<UserResponseDTO> first = userService.findSlice(2, 10, CountMode.ESTIMATED);
+        PaginatedResponse<UserResponseDTO> second = userService.findSlice(2, 10, CountMode.ESTIMATED);
+
+        assertEquals(11L, first.totalCount());
+        assertEquals(2, first.totalPages());
+        assertEquals(CountMode.ESTIMATED, second.countMode());
+        verify(userRepository).estimateCount();
+        verify(userRepository).count();
+    }
+
+    @Test
+    void findAfter_ShouldSeekPastCursor_AndReturnNextCursor() {
+        UserResponseDTO second = new UserResponseDTO(7L, "maria", "maria@gmail.com", false);
+        UserResponseDTO third = new UserResponseDTO(9L, "ana", "ana@gmail.com", false);
+        when(userRepository.findResponsesAfter(1L, Limit.of(3)))
+                .thenReturn(List.of(userResponseDTO, second, third));
+
+        CursorPaginatedResponse<UserResponseDTO> result = userService.findAfter(Cursors.encode(1L), 2);
+
+        assertEquals(2, result.items().size());
+        assertTrue(result.hasNext());
+        assertEquals(7L, Cursors.decode(result.nextCursor()));
+    }
+
+    @Test
+    void findAfter_ShouldStartFromBeginning_AndStopAtLastPage() {
+        when(userRepository.findResponsesAfter(0L, Limit.of(11)))
+                .thenReturn(List.of(userResponseDTO));
+
+        CursorPaginatedResponse<UserResponseDTO> result = userService.findAfter("", 10);
+
+        assertEquals(1, result.items().size());
+        assertFalse(result.hasNext());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void findAfter_ShouldRejectInvalidCursor() {
+        assertThrows(InvalidCursorException.class, () -> userService.findAfter("não-é-cursor", 10));
+        verify(userRepository, never()).findResponsesAfter(any(), any());
+    }
+
+    @Test
+    void search_ShouldTrimValue_AndPaginateByCursor() {
+        UserResponseDTO second = new UserResponseDTO(7L, "joana", "joana@gmail.com", false);
+        when(userRepository.search(UserSearchField.USERNAME, UserSearchMode.PREFIX, "jo", null, 2))
+                .thenReturn(List.of(userResponseDTO, second));
+
+        CursorPaginatedResponse<UserResponseDTO> result = userService.search(
+                UserSearchField.USERNAME, UserSearchMode.PREFIX, " jo ", null, 1);
+
+        assertEquals(List.of(userResponseDTO), result.items());
+        assertTrue(result.hasNext());
+        // A próxima página continua na ordem do índice: valor do campo e id do último entregue
+        assertEquals(new KeysetCursor(userResponseDTO.username(), userResponseDTO.id()),
+                Cursors.decodeKeyset(result.nextCursor()));
+    }
+
+    @Test
+    void search_ShouldResumeFromKeysetCursor() {
+        KeysetCursor after = new KeysetCursor("João:da Silva", 1L);
+        when(userRepository.search(UserSearchField.USERNAME, UserSearchMode.PREFIX, "jo", after, 11))
+                .thenReturn(List.of());
+
+        CursorPaginatedResponse<UserResponseDTO> result = userService.search(
+                UserSearchField.USERNAME, UserSearchMode.PREFIX, "jo", Cursors.encode(after), 10);
+
+        assertTrue(result.items().isEmpty());
+        assertFalse(result.hasNext());
+        assertThrows(InvalidCursorException.class, () -> userService.search(
+                UserSearchField.USERNAME, UserSearchMode.PREFIX, "jo", Cursors.encode(1L), 10));
+    }
+
+    @Test
+    void search_ShouldRejectUnknownFieldsAndModes() {
+        assertEquals(UserSearchField.EMAIL, UserSearchField.parse(" Email "));
+        assertEquals(UserSearchMode.IGNORE_CASE, UserSearchMode.parse("ignore-case"));
+        assertEquals(UserSearchMode.EXACT, UserSearchMode.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> UserSearchField.parse("password"));
+        assertThrows(IllegalArgumentException.class, () -> UserSearchMode.parse("regex"));
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.search(UserSearchField.EMAIL, UserSearchMode.EXACT, " ", null, 10));
     }
 
     @Test
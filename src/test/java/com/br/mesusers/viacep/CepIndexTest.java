@@ -0,0 +1,101 @@
+package com.br.mesusers.viacep;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CepIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void find_ShouldResolveEveryCep_WhateverTheInsertionOrder() throws IOException {
+        CepIndexWriter writer = new CepIndexWriter();
+        writer.add("20040-020", "Avenida Rio Branco", null, "Centro", "Rio de Janeiro", "RJ");
+        writer.add("01001000", "Praça da Sé", "lado ímpar", "Sé", "São Paulo", "SP");
+        writer.add("01310-100", "Avenida Paulista", null, "Bela Vista", "São Paulo", "SP");
+
+        CepIndex index = write(writer);
+
+        assertEquals(3, index.size());
+        assertEquals(new ViaCepResponse("01001-000", "Praça da Sé", "lado ímpar", "Sé", "São Paulo", "SP"),
+                index.find("01001-000"));
+        assertEquals(new ViaCepResponse("01310-100", "Avenida Paulista", null, "Bela Vista", "São Paulo", "SP"),
+                index.find("01310100"));
+        assertEquals("Rio de Janeiro", index.find("20040020").city());
+    }
+
+    @Test
+    void find_ShouldReturnNull_ForMissingOrMalformedCep() throws IOException {
+        CepIndexWriter writer = new CepIndexWriter();
+        writer.add("01001000", "Praça da Sé", null, "Sé", "São Paulo", "SP");
+        writer.add("20040020", "Avenida Rio Branco", null, "Centro", "Rio de Janeiro", "RJ");
+
+        CepIndex index = write(writer);
+
+        assertNull(index.find("00000001"));
+        assertNull(index.find("10000000"));
+        assertNull(index.find("99999999"));
+        assertNull(index.find("0100100"));
+        assertNull(index.find("0100-1000"));
+        assertNull(index.find("abc"));
+    }
+
+    @Test
+    void write_ShouldStoreRepeatedStringsOnce() throws IOException {
+        CepIndexWriter writer = new CepIndexWriter();
+        writer.add("01001000", "Praça da Sé", null, "Sé", "São Paulo", "SP");
+        writer.add("01002000", "Rua Direita", null, "Sé", "São Paulo", "SP");
+
+        CepIndex index = write(writer);
+
+        // Praça da Sé, Sé, São Paulo, SP, Rua Direita
+        assertEquals(5, index.stringCount());
+    }
+
+    @Test
+    void write_ShouldRejectDuplicateCep() {
+        CepIndexWriter writer = new CepIndexWriter();
+        writer.add("01001000", "Praça da Sé", null, "Sé", "São Paulo", "SP");
+        writer.add("01001-000", "Praça da Sé", null, "Sé", "São Paulo", "SP");
+
+        assertThrows(IllegalArgumentException.class, () -> writer.write(dir.resolve("ceps.idx")));
+    }
+
+    @Test
+    void readDelimited_ShouldTreatBlankFieldsAsMissing() throws IOException {
+        String csv = """
+                01001-000;Praça da Sé;;Sé;São Paulo;SP
+
+                20040020;Avenida Rio Branco;;Centro;Rio de Janeiro;RJ
+                """;
+
+        CepIndex index = write(CepIndexWriter.readDelimited(new BufferedReader(new StringReader(csv)), ';'));
+
+        assertEquals(2, index.size());
+        assertNull(index.find("01001000").complement());
+    }
+
+    @Test
+    void open_ShouldRejectFileThatIsNotAnIndex() throws IOException {
+        Path file = Files.writeString(dir.resolve("ceps.csv"), "01001-000;Praça da Sé;;Sé;São Paulo;SP");
+
+        assertThrows(IllegalArgumentException.class, () -> CepIndex.open(file));
+    }
+
+    private CepIndex write(CepIndexWriter writer) throws IOException {
+        Path file = dir.resolve("ceps.idx");
+        writer.write(file);
+        return CepIndex.open(file);
+    }
+}
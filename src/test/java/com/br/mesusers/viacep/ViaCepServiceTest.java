@@ -0,0 +1,243 @@
+package com.br.mesusers.viacep;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class ViaCepServiceTest {
+
+    private static final long TTL_MS = 10_000;
+    private static final long NEGATIVE_TTL_MS = 1_000;
+    private static final long AWAIT_TIMEOUT_MS = 5_000;
+    private static final String URL = "https://viacep.com.br/ws/01001000/json/";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private CepCacheRepository cepCacheRepository;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private ViaCepService viaCepService;
+    private ViaCepResponse found;
+    private final CountDownLatch viaCepEntered = new CountDownLatch(1);
+    private final CountDownLatch viaCepRelease = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        viaCepService = new ViaCepService(restTemplate, null, cepCacheRepository, 100, TTL_MS, NEGATIVE_TTL_MS,
+                AWAIT_TIMEOUT_MS, now::get);
+        found = new ViaCepResponse("01001-000", "Praça da Sé", "lado ímpar", "Sé", "São Paulo", "SP");
+    }
+
+    @Test
+    void getAddressFromCep_ShouldCallViaCepOnce_AndPersistResponse() {
+        when(cepCacheRepository.findById("01001000")).thenReturn(Optional.empty());
+        when(restTemplate.getForObject(URL, ViaCepResponse.class)).thenReturn(found);
+
+        assertEquals(found, viaCepService.getAddressFromCep("01001-000"));
+        assertEquals(found, viaCepService.getAddressFromCep("01001000"));
+
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(ViaCepResponse.class));
+        ArgumentCaptor<CepCacheEntity> saved = ArgumentCaptor.forClass(CepCacheEntity.class);
+        verify(cepCacheRepository).save(saved.capture());
+        assertEquals("01001000", saved.getValue().getCep());
+        assertEquals(found, saved.getValue().toResponse());
+    }
+
+    @Test
+    void getAddressFromCep_ShouldUseStoredEntry_WithoutCallingViaCep() {
+        CepCacheEntity stored = new CepCacheEntity("01001000", found, Instant.ofEpochMilli(now.get() - 1_000));
+        when(cepCacheRepository.findById("01001000")).thenReturn(Optional.of(stored));
+
+        assertEquals(found, viaCepService.getAddressFromCep("01001000"));
+
+        verify(restTemplate, never()).getForObject(anyString(), any());
+    }
+
+    @Test
+    void getAddressFromCep_ShouldCacheNotFound_ForShorterTtl() {
+        ViaCepResponse notFound = new ViaCepResponse(null, null, null, null, null, null, true);
+        when(cepCacheRepository.findById("01001000")).thenReturn(Optional.empty());
+        when(restTemplate.getForObject(URL, ViaCepResponse.class)).thenReturn(notFound);
+
+        for (int i = 0; i < 2; i++) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> viaCepService.getAddressFromCep("01001000"));
+            assertEquals("CEP não encontrado", e.getMessage());
+        }
+        verify(restTemplate, times(1)).getForObject(URL, ViaCepResponse.class);
+
+        now.addAndGet(NEGATIVE_TTL_MS);
+        assertThrows(IllegalArgumentException.class, () -> viaCepService.getAddressFromCep("01001000"));
+        verify(restTemplate, times(2)).getForObject(URL, ViaCepResponse.class);
+    }
+
+    @Test
+    void getAddressFromCep_ShouldServeExpiredEntry_WhenViaCepFails() {
+        CepCacheEntity stale = new CepCacheEntity("01001000", found, Instant.ofEpochMilli(now.get() - TTL_MS));
+        when(cepCacheRepository.findById("01001000")).thenReturn(Optional.of(stale));
+        when(restTemplate.getForObject(URL, ViaCepResponse.class)).thenThrow(new ResourceAccessException("timeout"));
+
+        assertEquals(found, viaCepService.getAddressFromCep("01001000"));
+        verify(cepCacheRepository, never()).save(any());
+
+        assertEquals(found, viaCepService.getAddressFromCep("01001000"));
+        verify(restTemplate, times(1)).getForObject(URL, ViaCepResponse.class);
+
+        now.addAndGet(NEGATIVE_TTL_MS);
+        assertEquals(found, viaCepService.getAddressFromCep("01001000"));
+        verify(restTemplate, times(2)).getForObject(URL, ViaCepResponse.class);
+    }
+
+    @Test
+    void getAddressFromCep_ShouldPropagateFailure_WhenNothingIsStored() {
+        when(cepCacheRepository.findById("01001000")).thenReturn(Optional.empty());
+        when(restTemplate.getForObject(URL, ViaCepResponse.class)).thenThrow(new ResourceAccessException("timeout"));
+
+        assertThrows(ResourceAccessException.class, () -> viaCepService.getAddressFromCep("01001000"));
+    }
+
+    @Test
+    void getAddressFromCep_ShouldRejectInvalidCep_BeforeAnyLookup() {
+        for (String cep : new String[] { "0100100", "01001-0000", "01.001-000", "0100-1000", "", "abc" }) {
+            assertThrows(IllegalArgumentException.class, () -> viaCepService.getAddressFromCep(cep), cep);
+        }
+
+        verify(cepCacheRepository, never()).findById(anyString());
+        verify(restTemplate, never()).getForObject(anyString(), any());
+    }
+
+    @Test
+    void purgeStored_ShouldDeleteExpiredNotFound_AndLongExpiredEntries() {
+        when(cepCacheRepository.deleteExpired(any(), any())).thenReturn(3);
+
+        viaCepService.purgeStored();
+
+        verify(cepCacheRepository).deleteExpired(Instant.ofEpochMilli(now.get() - NEGATIVE_TTL_MS),
+                Instant.ofEpochMilli(now.get() - 2 * TTL_MS));
+    }
+
+    @Test
+    void getAddressFromCep_ShouldResolveFromOfflineIndex_AndFallBackToViaCep(@TempDir Path dir) throws IOException {
+        CepIndexWriter writer = new CepIndexWriter();
+        writer.add("01310-100", "Avenida Paulista", "de 1 a 610 - lado par", "Bela Vista", "São Paulo", "SP");
+        writer.write(dir.resolve("ceps.idx"));
+        viaCepService = new ViaCepService(restTemplate, CepIndex.open(dir.resolve("ceps.idx")), cepCacheRepository,
+                100, TTL_MS, NEGATIVE_TTL_MS, AWAIT_TIMEOUT_MS, now::get);
+        when(cepCacheRepository.findById("01001000")).thenReturn(Optional.empty());
+        when(restTemplate.getForObject(URL, ViaCepResponse.class)).thenReturn(found);
+
+        assertEquals("Avenida Paulista", viaCepService.getAddressFromCep("01310-100").street());
+        assertEquals(found, viaCepService.getAddressFromCep("01001-000"));
+
+        verify(cepCacheRepository, never()).findById("01310100");
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(ViaCepResponse.class));
+    }
+
+    @Test
+    void getAddressFromCep_ShouldShareInFlightLookup_BetweenConcurrentCallers() throws Exception {
+        blockViaCep(() -> found);
+        CompletableFuture<ViaCepResponse> first = CompletableFuture.supplyAsync(
+                () -> viaCepService.getAddressFromCep("01001-000"));
+
+        CompletableFuture<ViaCepResponse> second = lookupWhileInFlight("01001000");
+        viaCepRelease.countDown();
+
+        assertEquals(found, first.get(5, TimeUnit.SECONDS));
+        assertEquals(found, second.get(5, TimeUnit.SECONDS));
+        verify(restTemplate, times(1)).getForObject(URL, ViaCepResponse.class);
+        verify(cepCacheRepository, times(1)).findById("01001000");
+    }
+
+    @Test
+    void getAddressFromCep_ShouldShareFailure_BetweenConcurrentCallers() throws Exception {
+        blockViaCep(() -> {
+            throw new ResourceAccessException("timeout");
+        });
+        CompletableFuture<ViaCepResponse> first = CompletableFuture.supplyAsync(
+                () -> viaCepService.getAddressFromCep("01001000"));
+
+        CompletableFuture<ViaCepResponse> second = lookupWhileInFlight("01001000");
+        viaCepRelease.countDown();
+
+        assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof ResourceAccessException);
+        verify(restTemplate, times(1)).getForObject(URL, ViaCepResponse.class);
+    }
+
+    @Test
+    void getAddressFromCep_ShouldStopWaiting_WhenInFlightLookupHangs() throws Exception {
+        viaCepService = new ViaCepService(restTemplate, null, cepCacheRepository, 100, TTL_MS, NEGATIVE_TTL_MS,
+                50, now::get);
+        blockViaCep(() -> found);
+        CompletableFuture<ViaCepResponse> first = CompletableFuture.supplyAsync(
+                () -> viaCepService.getAddressFromCep("01001000"));
+        assertTrue(viaCepEntered.await(5, TimeUnit.SECONDS));
+
+        assertThrows(ResourceAccessException.class, () -> viaCepService.getAddressFromCep("01001000"));
+
+        viaCepRelease.countDown();
+        assertEquals(found, first.get(5, TimeUnit.SECONDS));
+        verify(restTemplate, times(1)).getForObject(URL, ViaCepResponse.class);
+    }
+
+    // A chamada ao ViaCep fica presa até o teste liberar viaCepRelease
+    private void blockViaCep(Supplier<ViaCepResponse> result) {
+        when(cepCacheRepository.findById("01001000")).thenReturn(Optional.empty());
+        when(restTemplate.getForObject(URL, ViaCepResponse.class)).thenAnswer(invocation -> {
+            viaCepEntered.countDown();
+            viaCepRelease.await(5, TimeUnit.SECONDS);
+            return result.get();
+        });
+    }
+
+    // Dispara uma segunda consulta com a primeira em andamento e só volta quando ela está esperando o resultado
+    private CompletableFuture<ViaCepResponse> lookupWhileInFlight(String cep) throws InterruptedException {
+        assertTrue(viaCepEntered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ViaCepResponse> result = new CompletableFuture<>();
+        Thread caller = new Thread(() -> {
+            try {
+                result.complete(viaCepService.getAddressFromCep(cep));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        caller.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (caller.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return result;
+    }
+}